@@ -8,33 +8,56 @@ package poker;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * A single standard playing card from the 52-card deck.
+ * <p/>
+ * There are exactly 52 instances, obtained through {@link #of(Suit, Value)} or {@link #of(int)}, so cards can be
+ * compared by identity.  Each card carries its index in the natural order of the deck (0-51) and the bits used to
+ * represent it in rank and card masks (see {@link CardSet}); the hash code is the index, so it is stable between runs.
  *
  * @version created on 2014-04-17, 14:40
  */
 public final class CardDTO implements Comparable<CardDTO> {
+    private static final int VALUES = 13;
+    private static final CardDTO[] CARDS = new CardDTO[52];
     private static final List<CardDTO> DECK;
 
     private final Suit suit;
     private final Value value;
+    private final int index;
+    private final int rank;
 
     static {
-        DECK = new ArrayList<>(52);
         for (final Suit s : Suit.values()) {
             for (final Value v : Value.values()) {
-                DECK.add(new CardDTO(s, v));
+                final CardDTO card = new CardDTO(s, v);
+                CARDS[card.index] = card;
             }
         }
+        DECK = Collections.unmodifiableList(Arrays.asList(CARDS));
     }
 
-    public CardDTO(final Suit suit, final Value value) {
+    private CardDTO(final Suit suit, final Value value) {
         this.suit = suit;
         this.value = value;
+        this.rank = value.ordinal();
+        this.index = suit.ordinal() * VALUES + rank;
+    }
+
+    public static CardDTO of(final Suit suit, final Value value) {
+        return CARDS[suit.ordinal() * VALUES + value.ordinal()];
+    }
+
+    /**
+     * @param index index of the card in the natural order of the deck (0-51)
+     */
+    public static CardDTO of(final int index) {
+        return CARDS[index];
     }
 
     @Override
@@ -43,29 +66,25 @@ public final class CardDTO implements Comparable<CardDTO> {
     }
 
     public static int suitFirstDesc(final CardDTO c1, final CardDTO c2) {
-        final int suitCmp = Integer.compare(c1.suit.ordinal(), c2.suit.ordinal());
-        if (suitCmp == 0) {
-            return -Integer.compare(c1.value.ordinal(), c2.value.ordinal());
-        }
-
-        return -suitCmp;
+        // the index orders by suit first and value second
+        return -Integer.compare(c1.index, c2.index);
     }
 
     public static int valueFirstDesc(final CardDTO c1, final CardDTO c2) {
-        final int valueCmp = Integer.compare(c1.value.ordinal(), c2.value.ordinal());
+        final int valueCmp = Integer.compare(c1.rank, c2.rank);
         if (valueCmp == 0) {
-            return -Integer.compare(c1.suit.ordinal(), c2.suit.ordinal());
+            return -Integer.compare(c1.index, c2.index);
         }
 
         return -valueCmp;
     }
 
     public static int valueFirstOneDesc(final CardDTO c1, final CardDTO c2) {
-        final int v1 = c1.value == Value.ACE? 1: c1.value.value;
-        final int v2 = c2.value == Value.ACE? 1: c2.value.value;
+        final int v1 = c1.value == Value.ACE? -1: c1.rank;
+        final int v2 = c2.value == Value.ACE? -1: c2.rank;
         final int valueCmp = Integer.compare(v1, v2);
         if (valueCmp == 0) {
-            return -Integer.compare(c1.suit.ordinal(), c2.suit.ordinal());
+            return -Integer.compare(c1.index, c2.index);
         }
 
         return -valueCmp;
@@ -73,22 +92,13 @@ public final class CardDTO implements Comparable<CardDTO> {
 
     @Override
     public final boolean equals(final Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (!(o instanceof CardDTO)) {
-            return false;
-        }
-
-        final CardDTO cardDTO = (CardDTO)o;
-        return suit == cardDTO.suit && value == cardDTO.value;
+        // cards are interned, so equal cards are the same instances
+        return this == o;
     }
 
     @Override
     public final int hashCode() {
-        int result = suit.hashCode();
-        result = 31 * result + value.hashCode();
-        return result;
+        return index;
     }
 
     @Override
@@ -112,6 +122,34 @@ public final class CardDTO implements Comparable<CardDTO> {
         return value;
     }
 
+    /**
+     * @return index of the card in the natural order of the deck (0-51)
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * @return the bit representing the card in a 52-bit card mask (see {@link CardSet})
+     */
+    public long bit() {
+        return 1L << index;
+    }
+
+    /**
+     * @return the bit representing the value of the card in a 13-bit rank mask
+     */
+    public int rankBit() {
+        return 1 << rank;
+    }
+
+    /**
+     * @return the bit representing the suit of the card in a 4-bit suit mask
+     */
+    public int suitBit() {
+        return 1 << suit.ordinal();
+    }
+
     /**
      * @return a full deck (with random access) of cards in a natural order
      */
@@ -0,0 +1,234 @@
+/*
+ * @(#) CardSet.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Immutable set of cards backed by a single 52-bit {@code long}.
+ * <p/>
+ * The card with index {@code i} in the natural order of the deck (see {@link CardDTO#index()}) is represented by the
+ * bit {@code 1L << i}, i.e. each suit occupies 13 consecutive bits (clubs first) with the ranks going up from the
+ * two.  All set operations are constant time and the raw bits ({@link #bits()}) can be passed around as a primitive.
+ * For code working with lists of cards, {@link #asList()} offers a read-only view in the natural order of the deck.
+ *
+ * @version created on 2014-06-03, 21:05
+ */
+public final class CardSet implements Iterable<CardDTO> {
+    public static final int RANKS = 13;
+    public static final long ALL_BITS = (1L << 52) - 1;
+
+    public static final CardSet EMPTY = new CardSet(0);
+    public static final CardSet DECK = new CardSet(ALL_BITS);
+
+    private static final int RANK_MASK = (1 << RANKS) - 1;
+
+    private final long bits;
+
+    private CardSet(final long bits) {
+        this.bits = bits;
+    }
+
+    public static CardSet of(final long bits) {
+        if ((bits & ~ALL_BITS) != 0) {
+            throw new IllegalArgumentException("Not a valid set of cards: " + Long.toHexString(bits));
+        }
+        return bits == 0? EMPTY: new CardSet(bits);
+    }
+
+    public static CardSet of(final CardDTO... cards) {
+        long rv = 0;
+        for (final CardDTO card : cards) {
+            rv |= card.bit();
+        }
+        return of(rv);
+    }
+
+    public static CardSet of(final Iterable<CardDTO> cards) {
+        return of(bits(cards));
+    }
+
+    /**
+     * @return the bits of the given cards without creating a set
+     */
+    public static long bits(final Iterable<CardDTO> cards) {
+        long rv = 0;
+        for (final CardDTO card : cards) {
+            rv |= card.bit();
+        }
+        return rv;
+    }
+
+    public long bits() {
+        return bits;
+    }
+
+    public int size() {
+        return Long.bitCount(bits);
+    }
+
+    public boolean isEmpty() {
+        return bits == 0;
+    }
+
+    public boolean contains(final CardDTO card) {
+        return (bits & card.bit()) != 0;
+    }
+
+    public boolean containsAll(final CardSet other) {
+        return (bits & other.bits) == other.bits;
+    }
+
+    public boolean intersects(final CardSet other) {
+        return (bits & other.bits) != 0;
+    }
+
+    public CardSet with(final CardDTO card) {
+        return of(bits | card.bit());
+    }
+
+    public CardSet without(final CardDTO card) {
+        return of(bits & ~card.bit());
+    }
+
+    public CardSet union(final CardSet other) {
+        return of(bits | other.bits);
+    }
+
+    public CardSet intersection(final CardSet other) {
+        return of(bits & other.bits);
+    }
+
+    public CardSet minus(final CardSet other) {
+        return of(bits & ~other.bits);
+    }
+
+    /**
+     * @return the cards not in this set
+     */
+    public CardSet complement() {
+        return of(~bits & ALL_BITS);
+    }
+
+    /**
+     * @return 13-bit mask of ranks (bit {@code n} is {@link CardDTO.Value} with ordinal {@code n}) present in the
+     * given suit
+     */
+    public int suitMask(final CardDTO.Suit suit) {
+        return (int)(bits >>> suit.ordinal() * RANKS) & RANK_MASK;
+    }
+
+    /**
+     * @return 13-bit mask of ranks present in any suit
+     */
+    public int rankMask() {
+        return suitMask(CardDTO.Suit.CLUBS) | suitMask(CardDTO.Suit.DIAMONDS)
+                | suitMask(CardDTO.Suit.HEARTS) | suitMask(CardDTO.Suit.SPADES);
+    }
+
+    /**
+     * @return the set containing all four cards of the given value
+     */
+    public static CardSet ofValue(final CardDTO.Value value) {
+        final long rank = 1L << value.ordinal();
+        return of(rank | rank << RANKS | rank << 2 * RANKS | rank << 3 * RANKS);
+    }
+
+    /**
+     * @return the set containing all 13 cards of the given suit
+     */
+    public static CardSet ofSuit(final CardDTO.Suit suit) {
+        return of((long)RANK_MASK << suit.ordinal() * RANKS);
+    }
+
+    /**
+     * @return read-only view of the cards, in the natural order of the deck
+     */
+    public List<CardDTO> asList() {
+        return new CardList(bits);
+    }
+
+    @Override
+    public Iterator<CardDTO> iterator() {
+        return new Iterator<CardDTO>() {
+            private long left = bits;
+
+            @Override
+            public boolean hasNext() {
+                return left != 0;
+            }
+
+            @Override
+            public CardDTO next() {
+                if (left == 0) {
+                    throw new NoSuchElementException();
+                }
+                final int index = Long.numberOfTrailingZeros(left);
+                left &= left - 1;
+                return CardDTO.of(index);
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CardSet)) {
+            return false;
+        }
+
+        return bits == ((CardSet)o).bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bits);
+    }
+
+    @Override
+    public String toString() {
+        return CardDTO.toString(asList());
+    }
+
+    private static final class CardList extends AbstractList<CardDTO> implements RandomAccess {
+        private final long bits;
+        private final int size;
+
+        private CardList(final long bits) {
+            this.bits = bits;
+            this.size = Long.bitCount(bits);
+        }
+
+        @Override
+        public CardDTO get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            long left = bits;
+            for (int i = 0; i < index; i++) {
+                left &= left - 1;
+            }
+            return CardDTO.of(Long.numberOfTrailingZeros(left));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<CardDTO> iterator() {
+            return of(bits).iterator();
+        }
+    }
+}
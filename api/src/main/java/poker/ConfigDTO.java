@@ -15,11 +15,20 @@ public class ConfigDTO {
     private final int maximumBet;
     private final int initialChips;
     private final boolean reshuffleAfterGame;
+    private final int moveTimeout;
 
     public ConfigDTO(final int initialChips, final int maximumBet, final boolean reshuffleAfterGame) {
+        this(initialChips, maximumBet, reshuffleAfterGame, 0);
+    }
+
+    /**
+     * @param moveTimeout time in milliseconds a player has to make a move; 0 or less for no limit
+     */
+    public ConfigDTO(final int initialChips, final int maximumBet, final boolean reshuffleAfterGame, final int moveTimeout) {
         this.initialChips = initialChips;
         this.maximumBet = maximumBet;
         this.reshuffleAfterGame = reshuffleAfterGame;
+        this.moveTimeout = moveTimeout;
     }
 
     @Override
@@ -28,6 +37,7 @@ public class ConfigDTO {
         sb.append("maximumBet=").append(maximumBet);
         sb.append(", initialChips=").append(initialChips);
         sb.append(", reshuffleAfterGame=").append(reshuffleAfterGame);
+        sb.append(", moveTimeout=").append(moveTimeout);
         sb.append('}');
         return sb.toString();
     }
@@ -44,6 +54,13 @@ public class ConfigDTO {
         return reshuffleAfterGame;
     }
 
+    /**
+     * @return time in milliseconds a player has to make a move, 0 or less if there's no limit
+     */
+    public int getMoveTimeout() {
+        return moveTimeout;
+    }
+
     public int getVersion() {
         return 1;
     }
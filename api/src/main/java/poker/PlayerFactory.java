@@ -0,0 +1,23 @@
+/*
+ * @(#) PlayerFactory.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker;
+
+/**
+ * Creates players for the tables of a tournament.
+ * <p/>
+ * The factory is called once per table, and each player instance takes part in one table only.  The tables are
+ * played in parallel, so the factory has to be thread-safe, but the players it creates don't.
+ *
+ * @version created on 2014-06-24, 19:20
+ */
+@FunctionalInterface
+public interface PlayerFactory {
+    /**
+     * @return a new player for a table; players created by one factory should have the same name
+     */
+    Player newPlayer();
+}
@@ -18,11 +18,16 @@ public class TableDTO {
     private final int pot;
     private final int chipsToCall;
     private final List<CardDTO> communityCards;
+    private final ConfigDTO config;
 
-    public TableDTO(final List<CardDTO> communityCards, final int pot, final int chipsToCall) {
+    /**
+     * @param config configuration of the table
+     */
+    public TableDTO(final List<CardDTO> communityCards, final int pot, final int chipsToCall, final ConfigDTO config) {
         this.communityCards = Collections.unmodifiableList(communityCards);
         this.pot = pot;
         this.chipsToCall = chipsToCall;
+        this.config = config;
     }
 
     @Override
@@ -46,4 +51,11 @@ public class TableDTO {
     public int getPot() {
         return pot;
     }
+
+    /**
+     * @return configuration of the table, e.g. the maximum bet
+     */
+    public ConfigDTO getConfig() {
+        return config;
+    }
 }
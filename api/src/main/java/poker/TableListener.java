@@ -6,22 +6,30 @@
 
 package poker;
 
-import java.util.concurrent.atomic.AtomicReference;
-
 /**
  * Listener being notified about table events.
+ * <p/>
+ * The configuration of the table is passed to {@link #configChanged(ConfigDTO)} when the listener joins the table.
+ * Players get it with every move as well, in {@link TableDTO#getConfig()}.
+ * <p/>
+ * Migration: {@code currentConfig()}, which returned the configuration of the last table created in the JVM from a
+ * static field shared by all the tables, is gone; players read {@code table.getConfig()} in {@link
+ * Player#makeMove(PlayerStateDTO, TableDTO)} instead.
  *
  * @version created on 2014-04-17, 11:05
  */
 public interface TableListener {
-    AtomicReference<ConfigDTO> config = new AtomicReference<>();
-
     default void configChanged(final ConfigDTO cft) {
-        config.set(cft);
     }
 
-    default ConfigDTO currentConfig() {
-        return config.get();
+    /**
+     * Tells the table which events the listener needs; the table doesn't even create the events nobody needs.  Asked
+     * once, when the listener joins the table.
+     *
+     * @return true if the listener is to be notified about the events of the type
+     */
+    default boolean isInterestedIn(final TableEvent.Type type) {
+        return true;
     }
 
     void tableChanged(final TableEvent event);
@@ -73,4 +73,31 @@ public class CardDTOTest {
             Assert.assertEquals(cardJ.getValue().value - cardI.getValue().value, 1, "Difference in value between two neighbouring cards in sorted deck should be 1");
         }
     }
+
+    @Test
+    public void testInterned() throws Exception {
+        final List<CardDTO> deck = CardDTO.deck();
+        for (int i = 0; i < deck.size(); i++) {
+            final CardDTO card = deck.get(i);
+            Assert.assertSame(CardDTO.of(card.getSuit(), card.getValue()), card, "Cards should be interned");
+            Assert.assertSame(CardDTO.of(i), card, "Card should be found by its index");
+            Assert.assertEquals(card.index(), i, "Index should be the position in the new deck");
+        }
+    }
+
+    @Test
+    public void testStableHashCode() throws Exception {
+        for (final CardDTO card : CardDTO.deck()) {
+            Assert.assertEquals(card.hashCode(), card.index(), "Hash code should not depend on the JVM run");
+        }
+    }
+
+    @Test
+    public void testBits() throws Exception {
+        for (final CardDTO card : CardDTO.deck()) {
+            Assert.assertEquals(card.bit(), 1L << card.index());
+            Assert.assertEquals(card.rankBit(), 1 << card.getValue().ordinal());
+            Assert.assertEquals(card.suitBit(), 1 << card.getSuit().ordinal());
+        }
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * @(#) CardSetTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class CardSetTest {
+    private final List<CardDTO> deck = Collections.unmodifiableList(CardDTO.deck());
+
+    @Test
+    public void testBitFollowsDeckOrder() throws Exception {
+        for (int i = 0; i < deck.size(); i++) {
+            Assert.assertEquals(deck.get(i).index(), i, "Index should be the position in the new deck");
+            Assert.assertEquals(CardSet.of(deck.get(i)).bits(), 1L << i);
+        }
+    }
+
+    @Test
+    public void testDeck() throws Exception {
+        Assert.assertEquals(CardSet.DECK.size(), 52);
+        Assert.assertEquals(CardSet.DECK.asList(), deck, "Full set should list the cards in the natural order");
+        Assert.assertEquals(CardSet.of(deck), CardSet.DECK);
+        Assert.assertTrue(CardSet.DECK.complement().isEmpty());
+    }
+
+    @Test
+    public void testSetOperations() throws Exception {
+        final Random rnd = new Random(3);
+        for (int i = 0; i < 1000; i++) {
+            final List<CardDTO> first = deal(rnd, 7);
+            final List<CardDTO> second = deal(rnd, 7);
+            final CardSet a = CardSet.of(first);
+            final CardSet b = CardSet.of(second);
+
+            final CardSet union = a.union(b);
+            final CardSet intersection = a.intersection(b);
+            for (final CardDTO card : deck) {
+                final boolean inA = first.contains(card);
+                final boolean inB = second.contains(card);
+                Assert.assertEquals(a.contains(card), inA);
+                Assert.assertEquals(union.contains(card), inA || inB);
+                Assert.assertEquals(intersection.contains(card), inA && inB);
+                Assert.assertEquals(a.minus(b).contains(card), inA && !inB);
+            }
+            Assert.assertEquals(a.size(), 7);
+            Assert.assertTrue(union.containsAll(a));
+            Assert.assertEquals(a.intersects(b), !intersection.isEmpty());
+        }
+    }
+
+    @Test
+    public void testMasks() throws Exception {
+        final CardSet cards = CardSet.of(Arrays.asList(
+                CardDTO.of(0), CardDTO.of(12), CardDTO.of(13 + 12), CardDTO.of(3 * 13 + 5)));
+        Assert.assertEquals(cards.suitMask(CardDTO.Suit.CLUBS), 1 | 1 << 12);
+        Assert.assertEquals(cards.suitMask(CardDTO.Suit.DIAMONDS), 1 << 12);
+        Assert.assertEquals(cards.suitMask(CardDTO.Suit.HEARTS), 0);
+        Assert.assertEquals(cards.suitMask(CardDTO.Suit.SPADES), 1 << 5);
+        Assert.assertEquals(cards.rankMask(), 1 | 1 << 5 | 1 << 12);
+
+        for (final CardDTO.Value value : CardDTO.Value.values()) {
+            final CardSet all = CardSet.ofValue(value);
+            Assert.assertEquals(all.size(), 4);
+            Assert.assertEquals(all.rankMask(), 1 << value.ordinal());
+        }
+        for (final CardDTO.Suit suit : CardDTO.Suit.values()) {
+            Assert.assertEquals(CardSet.ofSuit(suit).suitMask(suit), (1 << 13) - 1);
+        }
+    }
+
+    @Test
+    public void testListView() throws Exception {
+        final Random rnd = new Random(5);
+        final List<CardDTO> cards = deal(rnd, 7);
+        final List<CardDTO> view = CardSet.of(cards).asList();
+        final List<CardDTO> sorted = new ArrayList<>(cards);
+        Collections.sort(sorted);
+
+        Assert.assertEquals(view, sorted, "The view should list cards in the natural order");
+        Assert.assertEquals(new ArrayList<>(view), sorted, "The view should iterate in the natural order");
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testListViewReadOnly() throws Exception {
+        CardSet.DECK.asList().remove(0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidBits() throws Exception {
+        CardSet.of(1L << 52);
+    }
+
+    private List<CardDTO> deal(final Random rnd, final int n) {
+        final List<CardDTO> cards = new ArrayList<>(deck);
+        Collections.shuffle(cards, rnd);
+        return new ArrayList<>(cards.subList(0, n));
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * @(#) Benchmarks.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so next to ops/sec the results show bytes allocated per operation ({@code
+ * gc.alloc.rate.norm}).
+ * <p/>
+ * Takes the usual JMH command line, e.g. to run only the pot benchmarks with 3 players:
+ * <pre>
+ * $ java -jar benchmarks/target/benchmarks.jar PotBenchmark -p players=3
+ * </pre>
+ *
+ * @version created on 2014-06-21, 12:30
+ */
+public class Benchmarks {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        final CommandLineOptions cmd = new CommandLineOptions(args);
+        final ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd).addProfiler(GCProfiler.class);
+        if (cmd.getIncludes().isEmpty()) {
+            options.include("poker\\.engine\\..*Benchmark");
+        }
+        new org.openjdk.jmh.runner.Runner(options.build()).run();
+    }
+}
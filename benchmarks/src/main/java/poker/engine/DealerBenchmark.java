@@ -0,0 +1,70 @@
+/*
+ * @(#) DealerBenchmark.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures shuffling and dealing the cards of a single game: two private cards for each player and five community
+ * cards.
+ *
+ * @version created on 2014-06-21, 10:40
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DealerBenchmark {
+    @Param({"array", "casino", "infinite"})
+    private String dealerType;
+
+    @Param({"2", "9"})
+    private int players;
+
+    private Dealer dealer;
+
+    @Setup
+    public void setUp() {
+        final RandomSource rnd = RandomSource.splittable(42);
+        switch (dealerType) {
+        case "array":
+            dealer = new ArrayDealer(rnd);
+            break;
+        case "casino":
+            dealer = new CasinoDealer(1, 2 * players + 5, rnd);
+            break;
+        case "infinite":
+            dealer = new InfiniteDealer(rnd);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown dealer: " + dealerType);
+        }
+    }
+
+    @Benchmark
+    public void shuffleAndDeal(final Blackhole bh) {
+        dealer.shuffle();
+        for (int i = 0; i < 2 * players + 5; i++) {
+            bh.consume(dealer.deal());
+        }
+    }
+}
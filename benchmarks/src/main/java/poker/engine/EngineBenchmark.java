@@ -0,0 +1,135 @@
+/*
+ * @(#) EngineBenchmark.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import poker.ConfigDTO;
+import poker.Player;
+import poker.player.michal.RandomPlayer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures whole tables played by {@link RandomPlayer}s until one of them wins, as done by the {@link Runner} ({@link
+ * #run()}), and single hands ({@link #hand()}) which, unlike tables, take a similar time each.
+ * <p/>
+ * The tables are observed by nobody ({@code none}), by the {@link TournamentStatistics} ({@code statistics}, as the
+ * {@link Runner} without debugging), by a listener of all the events ({@code all}) or by the {@link
+ * HandHistoryWriter} ({@code history}, writing into a temporary directory); compare the allocation rates to see the
+ * cost of the events.
+ *
+ * @version created on 2014-06-21, 12:00
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineBenchmark {
+    private static final ConfigDTO CONFIG = new ConfigDTO(1000, 100, true);
+
+    @Param({"2", "6"})
+    private int players;
+
+    @Param({"none", "statistics", "all", "history"})
+    private String observer;
+
+    private final List<Player> table = new ArrayList<>();
+    private RandomSource rnd;
+    private Engine engine;
+    private Path directory;
+    private HandHistoryWriter history;
+    private final TournamentStatistics statistics = new TournamentStatistics();
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < players; i++) {
+            table.add(new RandomPlayer("rp" + i + "/10/30"));
+        }
+        rnd = RandomSource.splittable(42);
+        if (observer.equals("history")) {
+            try {
+                directory = Files.createTempDirectory("hands");
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create hand history directory", e);
+            }
+            history = new HandHistoryWriter(directory, 64 << 20);
+        }
+        engine = table();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (history != null) {
+            history.close();
+            try (Stream<Path> files = Files.list(directory)) {
+                for (final Path file : (Iterable<Path>)files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Benchmark
+    public Engine run() {
+        final Engine engine = table();
+        engine.run();
+        return engine;
+    }
+
+    /**
+     * Plays one hand on the current table, starting a new table when it's closed.
+     */
+    @Benchmark
+    public int hand() {
+        int games = engine.getGamesPlayed();
+        while (engine.getGamesPlayed() == games) {
+            final Engine.State state = engine.step();
+            if (state == Engine.State.AWAIT_MOVE) {
+                final int seat = engine.getSeatToAct();
+                engine.submitMove(seat, table.get(seat).makeMove(engine.playerState(seat), engine.tableState(seat)));
+            } else if (state == Engine.State.CLOSED) {
+                // the closing took no hand: go on with the first hand of the new table
+                engine = table();
+                games = 0;
+            }
+        }
+        return games;
+    }
+
+    private Engine table() {
+        final Engine engine = new Engine(table, CONFIG, rnd.split());
+        if (observer.equals("statistics")) {
+            engine.registerObserver(statistics.table());
+        } else if (observer.equals("all")) {
+            engine.registerObserver((AllConsumingListener) event -> {
+            });
+        } else if (observer.equals("history")) {
+            engine.registerObserver(history.recorder(0));
+        }
+        return engine;
+    }
+}
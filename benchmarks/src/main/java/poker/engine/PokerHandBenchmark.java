@@ -0,0 +1,76 @@
+/*
+ * @(#) PokerHandBenchmark.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import poker.CardDTO;
+import poker.CardSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures selecting the best hand out of 7 random cards, as done for every player at showdown.
+ *
+ * @version created on 2014-06-21, 10:05
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PokerHandBenchmark {
+    /**
+     * number of pre-dealt hands, a power of 2
+     */
+    private static final int HANDS = 1024;
+
+    private final List<List<CardDTO>> communityLists = new ArrayList<>(HANDS);
+    private final List<List<CardDTO>> ownLists = new ArrayList<>(HANDS);
+    private final CardSet[] community = new CardSet[HANDS];
+    private final CardSet[] own = new CardSet[HANDS];
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        final Random rnd = new Random(42);
+        final List<CardDTO> deck = CardDTO.deck();
+        for (int i = 0; i < HANDS; i++) {
+            Collections.shuffle(deck, rnd);
+            communityLists.add(new ArrayList<>(deck.subList(0, 5)));
+            ownLists.add(new ArrayList<>(deck.subList(5, 7)));
+            community[i] = CardSet.of(communityLists.get(i));
+            own[i] = CardSet.of(ownLists.get(i));
+        }
+    }
+
+    @Benchmark
+    public PokerHand selectBestOfSets() {
+        final int i = next++ & HANDS - 1;
+        return PokerHand.selectBest("player", community[i], own[i]);
+    }
+
+    @Benchmark
+    public PokerHand selectBestOfLists() {
+        final int i = next++ & HANDS - 1;
+        return PokerHand.selectBest("player", communityLists.get(i), ownLists.get(i));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * @(#) PotBenchmark.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the pot queries made during a game: every move is followed by checks of the maximum contribution and
+ * whether the pot is equalised.  One operation is one game replayed on the string keyed {@link Pot} or on the seat
+ * indexed {@link SeatPot}.
+ *
+ * @version created on 2014-06-21, 11:15
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PotBenchmark {
+    private static final int MOVES = 40;
+
+    @Param({"2", "6", "10"})
+    private int players;
+
+    private String[] names;
+    private int[] seats;
+    /**
+     * chips added by the move or -1 if the player folds
+     */
+    private int[] chips;
+
+    private Pot pot;
+    private SeatPot seatPot;
+
+    @Setup
+    public void setUp() {
+        final Random rnd = new Random(42);
+        names = new String[players];
+        for (int i = 0; i < players; i++) {
+            names[i] = "player" + i;
+        }
+        seats = new int[MOVES];
+        chips = new int[MOVES];
+        for (int i = 0; i < MOVES; i++) {
+            seats[i] = i % players;
+            chips[i] = rnd.nextInt(20) == 0? -1: rnd.nextInt(3) * Engine.BIG_BLIND;
+        }
+        pot = new Pot();
+        seatPot = new SeatPot(players);
+    }
+
+    @Benchmark
+    public int pot() {
+        pot.clear();
+        int rv = 0;
+        for (int i = 0; i < MOVES; i++) {
+            if (chips[i] < 0) {
+                pot.removePlayer(names[seats[i]]);
+            } else {
+                pot.add(names[seats[i]], chips[i]);
+            }
+            rv += pot.maxContribution() - pot.playersContribution(names[seats[i]]);
+            rv += pot.equalised()? 1: 0;
+        }
+        return rv + pot.total();
+    }
+
+    @Benchmark
+    public int seatPot() {
+        seatPot.clear();
+        int rv = 0;
+        for (int i = 0; i < MOVES; i++) {
+            if (chips[i] < 0) {
+                seatPot.removePlayer(seats[i]);
+            } else {
+                seatPot.add(seats[i], chips[i]);
+            }
+            rv += seatPot.maxContribution() - seatPot.playersContribution(seats[i]);
+            rv += seatPot.equalised()? 1: 0;
+        }
+        return rv + seatPot.total();
+    }
+}
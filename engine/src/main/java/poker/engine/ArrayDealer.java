@@ -0,0 +1,67 @@
+/*
+ * @(#) ArrayDealer.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import poker.CardDTO;
+
+/**
+ * Implements a single deck dealer keeping the deck as an array of card indices (see {@link CardDTO#index()}).
+ * <p/>
+ * The deck is shuffled lazily: {@link #shuffle()} only rewinds the deck and every {@link #deal()} performs a single
+ * step of the Fisher-Yates shuffle, so only as many cards are randomised as are actually dealt.  Since the steps start
+ * from whatever permutation is left in the array, each game gets a uniformly random deck all the same.
+ * <p/>
+ * The dealer takes no locks and allocates nothing when dealing; it is meant to be owned by a single table, together
+ * with its random source.
+ *
+ * @version created on 2014-06-08, 11:20
+ */
+class ArrayDealer implements Dealer {
+    private static final int DECK_SIZE = 52;
+
+    private final int[] deck = new int[DECK_SIZE];
+    private final RandomSource rnd;
+
+    private int dealt;
+
+    public ArrayDealer(final RandomSource rnd) {
+        this.rnd = rnd;
+        for (int i = 0; i < DECK_SIZE; i++) {
+            deck[i] = i;
+        }
+    }
+
+    public ArrayDealer(final long seed) {
+        this(RandomSource.splittable(seed));
+    }
+
+    public ArrayDealer() {
+        this(RandomSource.splittable());
+    }
+
+    @Override
+    public void burn() {
+        deal();
+    }
+
+    @Override
+    public void shuffle() {
+        dealt = 0;
+    }
+
+    @Override
+    public CardDTO deal() {
+        if (dealt == DECK_SIZE) {
+            shuffle();
+        }
+        final int pick = dealt + rnd.nextInt(DECK_SIZE - dealt);
+        final int card = deck[pick];
+        deck[pick] = deck[dealt];
+        deck[dealt++] = card;
+        return CardDTO.of(card);
+    }
+}
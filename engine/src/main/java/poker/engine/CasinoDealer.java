@@ -8,7 +8,6 @@ package poker.engine;
 
 import poker.CardDTO;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Stack;
 
@@ -21,15 +20,22 @@ class CasinoDealer implements Dealer {
     private final int numberOfDecks;
     private final int minNumberOfCards;
 
+    private final RandomSource rnd;
+
     private final Stack<CardDTO> stack;
 
-    public CasinoDealer(final int numberOfDecks, final int minNumberOfCards) {
+    public CasinoDealer(final int numberOfDecks, final int minNumberOfCards, final RandomSource rnd) {
         this.numberOfDecks = numberOfDecks;
         this.minNumberOfCards = minNumberOfCards;
+        this.rnd = rnd;
         stack = new Stack<>();
         shuffle();
     }
 
+    public CasinoDealer(final int numberOfDecks, final int minNumberOfCards) {
+        this(numberOfDecks, minNumberOfCards, RandomSource.splittable());
+    }
+
     public CasinoDealer(final int numberOfDecks) {
         this(numberOfDecks, 1);
     }
@@ -46,7 +52,9 @@ class CasinoDealer implements Dealer {
         for (int i = 0; i < numberOfDecks; i++) {
             stack.addAll(deck);
         }
-        Collections.shuffle(stack);
+        for (int i = stack.size() - 1; i > 0; i--) {
+            stack.set(i, stack.set(rnd.nextInt(i + 1), stack.get(i)));
+        }
     }
 
     @Override
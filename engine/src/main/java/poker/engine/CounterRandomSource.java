@@ -0,0 +1,52 @@
+/*
+ * @(#) CounterRandomSource.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+/**
+ * Deterministic, counter based random source: the {@code n}-th value of the stream is a SplitMix64 hash of the key
+ * and {@code n}, so any position of the stream can be recomputed in isolation (see {@link #seek(long)}).  Splitting
+ * derives a new key from the stream.
+ *
+ * @version created on 2014-06-09, 20:31
+ */
+class CounterRandomSource implements RandomSource {
+    static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long key;
+    private long counter;
+
+    public CounterRandomSource(final long key) {
+        this.key = key;
+    }
+
+    /**
+     * SplitMix64 finaliser.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public long nextLong() {
+        return mix(key + GAMMA * ++counter);
+    }
+
+    @Override
+    public RandomSource split() {
+        return new CounterRandomSource(mix(nextLong()));
+    }
+
+    /**
+     * Moves the stream to the given position; the next value is the one which followed {@code position} values drawn
+     * from a fresh source with the same key.
+     */
+    public void seek(final long position) {
+        counter = position;
+    }
+}
@@ -11,29 +11,46 @@ import poker.BidListener;
 import poker.CardDTO;
 import poker.CardEvent;
 import poker.CardListener;
+import poker.CardSet;
 import poker.ConfigDTO;
 import poker.MoveDTO;
 import poker.Player;
+import poker.PlayerStateDTO;
 import poker.TableDTO;
 import poker.TableEvent;
 import poker.TableListener;
+import poker.tools.HandRanker;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import static java.util.Arrays.asList;
 
 /**
  * The poker playing engine.
+ * <p/>
+ * The engine is an explicit state machine: every call to {@link #step()} makes a single transition which doesn't need
+ * any player's decision (posting blinds, dealing, advancing a street, showdown) and stops in {@link
+ * State#AWAIT_MOVE} until the move of the player at {@link #getSeatToAct()} is given with {@link #submitMove(int,
+ * MoveDTO)}.  Hence a table never blocks a thread while waiting for a player, and a single thread can drive many
+ * tables; {@link #run()} is just the simplest such driver asking players synchronously.
+ * <p/>
+ * The engine is not thread-safe: all the calls for one table must be made by one thread at a time.
  *
  * @version created on 2014-04-17, 15:42
  */
@@ -41,47 +58,107 @@ public class Engine {
     public static final int ANTE = 1;
     public static final int SMALL_BLIND = 2;
     public static final int BIG_BLIND = 4;
+    /**
+     * number of moves a player may miss the deadline for before he's removed from the table
+     */
+    public static final int MAX_TIMEOUTS = 3;
 
     private final List<PlayerState> players;
+    /**
+     * all the players by seat, including the ones already removed from the table
+     */
+    private final List<PlayerState> seats;
     private final List<BidListener> bidListeners = new ArrayList<>();
     private final List<TableListener> tableListeners = new ArrayList<>();
+    /**
+     * table listeners by the type of events they are interested in
+     */
+    private final Map<TableEvent.Type, List<TableListener>> tableListenersByType = new EnumMap<>(TableEvent.Type.class);
     private final List<CardListener> cardListeners = new ArrayList<>();
+    private final List<HandObserver> handObservers = new ArrayList<>();
 
     private final ConfigDTO config;
 
     private Dealer dealer;
+    /**
+     * executor asking players for moves under the deadline, null to ask them synchronously
+     */
+    private ExecutorService moveExecutor;
+    private final int[] timeouts;
 
     private List<PlayerState> gamePlayers;
-    private final Pot pot = new Pot();
+    private final SeatPot pot;
+    /**
+     * hand ranks by seat, valid at showdown only
+     */
+    private final int[] ranks;
     private final List<CardDTO> communityCards = new ArrayList<>(5);
+    private CardSet board = CardSet.EMPTY;
+
+    private State state = State.CREATED;
+    /**
+     * players in the order of betting in the current pass of the round of betting
+     */
+    private List<PlayerState> bettingOrder;
+    private int bettingIndex;
+    private PlayerState toAct;
+    /**
+     * winnings by seat of the game just finished
+     */
+    private int[] winnings;
+    private int gamesPlayed;
 
     public Engine(final List<Player> players, final ConfigDTO config) {
+        this(players, config, RandomSource.splittable());
+    }
+
+    /**
+     * @param rnd random source owned by this table (see {@link RandomSource#split()} for independent streams)
+     */
+    Engine(final List<Player> players, final ConfigDTO config, final RandomSource rnd) {
         this.config = config;
         this.players = initPlayers(players);
+        this.seats = Collections.unmodifiableList(new ArrayList<>(this.players));
+        this.timeouts = new int[players.size()];
+        this.pot = new SeatPot(players.size());
+        this.ranks = new int[players.size()];
         for (final Player player : players) {
             registerObserver(player);
         }
-        dealer = new CasinoDealer(1);
-        tableListeners.forEach(p -> p.configChanged(config));
+        dealer = new ArrayDealer(rnd);
     }
 
+    /**
+     * @param observer any of {@link BidListener}, {@link CardListener}, {@link TableListener} (which is given the
+     *                 configuration of the table right away) and {@link HandObserver}
+     */
     public void registerObserver(final Object observer) {
         if (observer instanceof BidListener) {
             bidListeners.add((BidListener)observer);
         }
         if (observer instanceof TableListener) {
-            tableListeners.add((TableListener)observer);
+            final TableListener listener = (TableListener)observer;
+            tableListeners.add(listener);
+            listener.configChanged(config);
+            for (final TableEvent.Type type : TableEvent.Type.values()) {
+                if (listener.isInterestedIn(type)) {
+                    tableListenersByType.computeIfAbsent(type, t -> new ArrayList<>()).add(listener);
+                }
+            }
         }
         if (observer instanceof CardListener) {
             cardListeners.add((CardListener)observer);
         }
+        if (observer instanceof HandObserver) {
+            handObservers.add((HandObserver)observer);
+        }
     }
 
     private List<PlayerState> initPlayers(final List<Player> players) {
         final List<PlayerState> rv = new ArrayList<>(players.size());
         final Set<String> names = new HashSet<>();
         for (final Player player : players) {
-            rv.add(new PlayerState(player, config.getInitialChips()));
+            rv.add(new PlayerState(player, rv.size(), config.getInitialChips()));
             names.add(player.name());
         }
         if (names.size() != players.size()) {
@@ -94,52 +171,248 @@ public class Engine {
         return rv;
     }
 
+    /**
+     * Plays on the table until one player is left.  The players are asked for their moves synchronously, unless
+     * {@link #setMoveExecutor(ExecutorService) an executor} is given and {@link ConfigDTO#getMoveTimeout() the move
+     * timeout} is set.
+     */
     public void run() {
-        createTable();
-        while (players.size() > 1) {
-            final List<String> winners = playAGame();
+        while (step() != State.CLOSED) {
+            if (state == State.AWAIT_MOVE) {
+                final int seat = getSeatToAct();
+                final MoveDTO move = askForMove(toAct);
+                if (move != null) {
+                    submitMove(seat, move);
+                } else {
+                    moveTimedOut(seat);
+                }
+            }
+        }
+    }
 
-            notifyTable(TableEvent.Type.GAME_WON, winners);
-            rewardWinners(winners);
+    /**
+     * @return the player's move or null if he didn't make it on time
+     *
+     * @throws IllegalStateException if the table's thread is interrupted while waiting for the move, which aborts the
+     *                               table without charging the player a timeout (the interrupt is kept)
+     */
+    private MoveDTO askForMove(final PlayerState player) {
+        final int seat = player.getSeat();
+        final PlayerStateDTO playerState = playerState(seat);
+        final TableDTO tableState = tableState(seat);
+        if (moveExecutor == null || config.getMoveTimeout() <= 0) {
+            return player.getPlayer().makeMove(playerState, tableState);
+        }
 
-            prepareNewGame();
+        final Future<MoveDTO> move = moveExecutor.submit(() -> player.getPlayer().makeMove(playerState, tableState));
+        try {
+            return move.get(config.getMoveTimeout(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            move.cancel(true);
+            return null;
+        } catch (InterruptedException e) {
+            move.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Table interrupted waiting for " + player.getPlayer().name(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error)e.getCause();
+            }
+            throw new IllegalStateException("Player " + player.getPlayer().name() + " failed to move", e.getCause());
         }
-        notifyTable(TableEvent.Type.TABLE_CLOSED, asList(players.get(0).getPlayer().name()));
     }
 
-    private List<String> playAGame() {
-        gamePlayers = new ArrayList<>(players);
-        try {
+    /**
+     * Makes a single transition of the table.  Does nothing if the table awaits a move or is closed.
+     *
+     * @return the state after the transition
+     */
+    public State step() {
+        switch (state) {
+        case CREATED:
+            createTable();
+            state = State.BLINDS;
+            break;
+        case BLINDS:
+            for (final HandObserver observer : handObservers) {
+                observer.handStarted(gamesPlayed, players);
+            }
+            gamePlayers = new ArrayList<>(players);
             initialPayments();
+            state = gamePlayers.size() > 1? State.DEAL: State.GAME_OVER;
+            if (state == State.GAME_OVER) {
+                lastStandingWins();
+            }
+            break;
+        case DEAL:
             dealPrivateCards();
-            roundOfBetting();
-
-            dealCommunityCard();
-            dealCommunityCard();
+            startRoundOfBetting();
+            break;
+        case BETTING:
+            nextToAct();
+            break;
+        case STREET:
+            if (communityCards.isEmpty()) {
+                // flop
+                dealCommunityCard();
+                dealCommunityCard();
+            }
             dealCommunityCard();
-            roundOfBetting();
+            startRoundOfBetting();
+            break;
+        case SHOWDOWN:
+            winnings = showdown();
+            state = State.GAME_OVER;
+            break;
+        case GAME_OVER:
+            for (final HandObserver observer : handObservers) {
+                observer.handFinished(winnings);
+            }
+            gamesPlayed++;
+            if (listening(TableEvent.Type.GAME_WON)) {
+                notifyTable(TableEvent.Type.GAME_WON, winners(winnings));
+            }
+            rewardWinners(winnings);
+            prepareNewGame();
+            if (players.size() > 1) {
+                state = State.BLINDS;
+            } else {
+                notifyTable(TableEvent.Type.TABLE_CLOSED, players.get(0));
+                state = State.CLOSED;
+            }
+            break;
+        case AWAIT_MOVE:
+        case CLOSED:
+            break;
+        default:
+            throw new IllegalStateException("Unknown state: " + state);
+        }
+        return state;
+    }
 
-            dealCommunityCard();
-            roundOfBetting();
+    /**
+     * Makes the move for the player awaited by the table.
+     *
+     * @param seat seat of the player making the move (see {@link #getSeatToAct()})
+     * @param move the move
+     *
+     * @throws IllegalStateException if the table doesn't await a move from the seat
+     */
+    public void submitMove(final int seat, final MoveDTO move) {
+        if (state != State.AWAIT_MOVE || toAct.getSeat() != seat) {
+            throw new IllegalStateException("Seat " + seat + " is not to act, the table is in state " + state);
+        }
+        final PlayerState player = toAct;
+        toAct = null;
+        state = State.BETTING;
+        final int chips = player.getChips();
+        moveMade(player, move);
+        for (final HandObserver observer : handObservers) {
+            observer.moveMade(seat, move, chips - player.getChips());
+        }
+    }
 
-            dealCommunityCard();
-            roundOfBetting();
+    /**
+     * Records that the player awaited by the table missed the deadline for his move.  The move counts as {@link
+     * MoveDTO#FOLD}, unless the player missed {@link #MAX_TIMEOUTS} deadlines already, in which case he's removed from
+     * the table.
+     *
+     * @param seat seat of the player who didn't make the move (see {@link #getSeatToAct()})
+     *
+     * @throws IllegalStateException if the table doesn't await a move from the seat
+     */
+    public void moveTimedOut(final int seat) {
+        if (state != State.AWAIT_MOVE || toAct.getSeat() != seat) {
+            throw new IllegalStateException("Seat " + seat + " is not to act, the table is in state " + state);
+        }
+        for (final HandObserver observer : handObservers) {
+            observer.moveTimedOut(seat);
+        }
+        final PlayerState player = toAct;
+        toAct = null;
+        state = State.BETTING;
+        if (++timeouts[seat] < MAX_TIMEOUTS) {
+            moveMade(player, MoveDTO.FOLD);
+        } else {
+            killPlayer(player, "Too many moves timed out");
+        }
+    }
 
-            return showdown();
-        } catch (OnePlayerLeftException e) {
-            // premature end of game --- the last standing wins
-            return asList(gamePlayers.get(0).getPlayer().name());
+    /**
+     * @return number of the missed deadlines by player name, for the players who missed any
+     */
+    public Map<String, Integer> getMoveTimeouts() {
+        final Map<String, Integer> rv = new HashMap<>();
+        for (final PlayerState player : seats) {
+            if (timeouts[player.getSeat()] > 0) {
+                rv.put(player.getPlayer().name(), timeouts[player.getSeat()]);
+            }
         }
+        return rv;
+    }
+
+    /**
+     * @return number of games (hands) finished at the table so far
+     */
+    public int getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return seat of the player whose move the table awaits or -1 if it doesn't await any
+     */
+    public int getSeatToAct() {
+        return state == State.AWAIT_MOVE? toAct.getSeat(): -1;
+    }
+
+    /**
+     * @return the state of the player at the {@code seat} as seen by the player
+     */
+    public PlayerStateDTO playerState(final int seat) {
+        return seat(seat).toDTO();
+    }
+
+    /**
+     * @return the state of the table as seen by the player at the {@code seat}
+     */
+    public TableDTO tableState(final int seat) {
+        final int chipsToCall = pot.maxContribution() - pot.playersContribution(seat);
+        return new TableDTO(communityCards, pot.total(), chipsToCall, config);
+    }
+
+    private PlayerState seat(final int seat) {
+        return seats.get(seat);
+    }
+
+    private void lastStandingWins() {
+        winnings = new int[ranks.length];
+        winnings[gamePlayers.get(0).getSeat()] = pot.total();
     }
 
-    private void rewardWinners(final List<String> in) {
-        final Set<String> winners = new HashSet<>(in);
+    /**
+     * @return the players who won anything, the biggest winnings first
+     */
+    private List<PlayerState> winners(final int[] winnings) {
+        final List<PlayerState> rv = new ArrayList<>(gamePlayers.size());
+        for (final PlayerState player : gamePlayers) {
+            if (winnings[player.getSeat()] > 0) {
+                rv.add(player);
+            }
+        }
+        rv.sort(Comparator.comparingInt((PlayerState p) -> winnings[p.getSeat()]).reversed());
+        return rv;
+    }
 
-        final Map<String, Integer> winnings = pot.divide(winners);
+    private void rewardWinners(final int[] winnings) {
         for (final PlayerState player : players) {
-            final String name = player.getPlayer().name();
-            if (winnings.containsKey(name)) {
-                player.reward(winnings.get(name));
+            if (winnings[player.getSeat()] > 0) {
+                player.reward(winnings[player.getSeat()]);
             }
         }
     }
@@ -155,57 +428,102 @@ public class Engine {
 
         pot.clear();
         communityCards.clear();
+        board = CardSet.EMPTY;
 
-        notifyTable(TableEvent.Type.GAME_STARTED, playerNames(players));
+        notifyTable(TableEvent.Type.GAME_STARTED, players);
     }
 
     private void createTable() {
         pot.clear();
-        notifyTable(TableEvent.Type.TABLE_CREATED, playerNames(players));
+        notifyTable(TableEvent.Type.TABLE_CREATED, players);
     }
 
-    private void notifyTable(final TableEvent.Type eventType, final List<String> names) {
-        final TableEvent te = new TableEvent(eventType, names);
-        tableListeners.forEach(p -> p.tableChanged(te));
+    /**
+     * @return true if any of the table listeners is interested in the events of the type
+     */
+    private boolean listening(final TableEvent.Type eventType) {
+        return tableListenersByType.containsKey(eventType);
+    }
+
+    private void notifyTable(final TableEvent.Type eventType, final List<PlayerState> active) {
+        if (listening(eventType)) {
+            notifyTable(new TableEvent(eventType, playerNames(active)));
+        }
+    }
+
+    private void notifyTable(final TableEvent.Type eventType, final PlayerState player) {
+        if (listening(eventType)) {
+            notifyTable(new TableEvent(eventType, asList(player.getPlayer().name())));
+        }
+    }
+
+    private void notifyTable(final TableEvent event) {
+        for (final TableListener listener : tableListenersByType.get(event.getType())) {
+            listener.tableChanged(event);
+        }
     }
 
     private List<String> playerNames(final List<PlayerState> active) {
         return active.stream().map(a -> a.getPlayer().name()).collect(Collectors.<String>toList());
     }
 
-    private List<String> showdown() {
-        final List<PokerHand> hands = new ArrayList<>(gamePlayers.size());
+    /**
+     * Shows the hands and divides the pot (including side pots) between the best hands.  The odd chips go to the
+     * winners in seat order, starting with the first seat after the dealer.
+     *
+     * @return winnings by seat
+     */
+    private int[] showdown() {
         for (final PlayerState player : gamePlayers) {
-            final String name = player.getPlayer().name();
-            final PokerHand hand = PokerHand.selectBest(name, communityCards, player.getCards());
-            hands.add(hand);
-            cardListeners.forEach(cl -> cl.cardsChanged(new CardEvent(CardEvent.Type.HAND_SHOWN, name, player.getCards())));
-        }
-        Collections.sort(hands, Comparator.reverseOrder());
-
-        final List<String> rv = new LinkedList<>();
-        PokerHand last = hands.get(0);
-        rv.add(last.getOwner());
-        for (int i = 1; i < hands.size(); i++) {
-            final PokerHand cur = hands.get(i);
-            if (last.compareTo(cur) != 0) {
-                break;
+            ranks[player.getSeat()] = rank(player);
+            if (!cardListeners.isEmpty()) {
+                notifyCards(new CardEvent(CardEvent.Type.HAND_SHOWN, player.getPlayer().name(), player.getCards()));
             }
-            rv.add(cur.getOwner());
-            last = cur;
         }
-        return rv;
+        final int dealerSeat = players.get(0).getSeat();
+        return pot.divide(ranks, (dealerSeat + 1) % ranks.length);
+    }
+
+    /**
+     * @return strength of the player's hand with the board, counting every card dealt even if a dealer with more decks
+     * than one dealt the same card twice
+     */
+    private int rank(final PlayerState player) {
+        final long hole = player.getHand().bits();
+        if (Long.bitCount(board.bits() | hole) == communityCards.size() + 2) {
+            return HandRanker.rank(board.bits() | hole);
+        }
+        final List<CardDTO> all = new ArrayList<>(communityCards);
+        all.addAll(player.getCards());
+        return HandRanker.rank(all);
     }
 
     private void dealCommunityCard() {
         final CardDTO card = dealer.deal();
         communityCards.add(card);
-        cardListeners.forEach(cl -> cl.cardsChanged(new CardEvent(CardEvent.Type.COMMUNITY_CARD, "all", asList(card))));
+        board = board.with(card);
+        for (final HandObserver observer : handObservers) {
+            observer.communityCard(card);
+        }
+        if (!cardListeners.isEmpty()) {
+            notifyCards(new CardEvent(CardEvent.Type.COMMUNITY_CARD, "all", asList(card)));
+        }
+    }
+
+    private void notifyCards(final CardEvent event) {
+        for (final CardListener listener : cardListeners) {
+            listener.cardsChanged(event);
+        }
     }
 
     private void dealPrivateCards() {
         for (final PlayerState player : gamePlayers) {
-            player.setCards(Arrays.asList(dealer.deal(), dealer.deal()));
+            final CardDTO first = dealer.deal();
+            final CardDTO second = dealer.deal();
+            player.setCards(first, second);
+            for (final HandObserver observer : handObservers) {
+                observer.privateCards(player.getSeat(), first, second);
+            }
         }
     }
 
@@ -213,42 +531,51 @@ public class Engine {
      * Initial payments consist of:<ul> <li>One chip from each of players</li> <li>Two chips from the player next to the
      * dealer (small blind)</li> <li>Four chips from the player next to the small blind</li> </ul>
      * <p/>
-     * Note that if there are not enough players (less than 3), the paying goes around to the dealer.  If at any point,
-     * a player is incapable of paying, he is removed from the game (looses).
+     * Note that if there are not enough players (less than 3), the paying goes around to the dealer.  A player who
+     * cannot pay the ante is removed from the table; a player who cannot pay the whole blind pays what he has and goes
+     * all in.
      */
-    private void initialPayments() throws OnePlayerLeftException {
+    private void initialPayments() {
         for (final PlayerState player : new ArrayList<>(gamePlayers)) {
-            assureTwoPlayers();
-            if (!player.attemptPayment(pot, ANTE)) {
+            if (gamePlayers.size() == 1) {
+                return;
+            }
+            if (player.getChips() < ANTE) {
                 killPlayer(player, "Not enough money for ante.");
+            } else {
+                forcedBet(player, ANTE);
             }
         }
 
         final PlayerState smallBlind = gamePlayers.get(1 % gamePlayers.size());
-        if (!smallBlind.attemptPayment(pot, SMALL_BLIND)) {
-            playerLostGame(smallBlind, "Not enough money for small blind");
-        }
-        assureTwoPlayers();
+        forcedBet(smallBlind, Math.min(SMALL_BLIND, smallBlind.getChips()));
 
         final PlayerState bigBlind = gamePlayers.get(2 % gamePlayers.size());
-        if (!bigBlind.attemptPayment(pot, BIG_BLIND)) {
-            playerLostGame(bigBlind, "Not enough money for big blind");
+        forcedBet(bigBlind, Math.min(BIG_BLIND, bigBlind.getChips()));
+    }
+
+    private void forcedBet(final PlayerState player, final int chips) {
+        player.attemptPayment(pot, chips);
+        for (final HandObserver observer : handObservers) {
+            observer.forcedBet(player.getSeat(), chips);
         }
-        assureTwoPlayers();
     }
 
     private void killPlayer(final PlayerState player, final String reason) {
         players.remove(player);
         removeFromGame(player);
+        for (final HandObserver observer : handObservers) {
+            observer.playerRemoved(player.getSeat());
+        }
 
-        notifyTable(TableEvent.Type.PLAYER_REMOVED, asList(player.getPlayer().name()));
+        notifyTable(TableEvent.Type.PLAYER_REMOVED, player);
         player.killed(reason);
     }
 
     private void playerLostGame(final PlayerState player, final String reason) {
         removeFromGame(player);
 
-        notifyTable(TableEvent.Type.PLAYER_LOST, asList(player.getPlayer().name()));
+        notifyTable(TableEvent.Type.PLAYER_LOST, player);
         player.lost(reason);
     }
 
@@ -256,22 +583,47 @@ public class Engine {
         if (gamePlayers.contains(player)) {
             gamePlayers.remove(player);
         }
-        pot.removePlayer(player.getPlayer().name());
+        pot.removePlayer(player.getSeat());
     }
 
-    private void roundOfBetting() throws OnePlayerLeftException {
-        do {
-            final List<PlayerState> playersForRound = playersForBetting();
-            for (final PlayerState player : playersForRound) {
-                assureTwoPlayers();
-
-                final int chipsDelta = pot.maxContribution() - pot.playersContribution(player.getPlayer().name());
-                final TableDTO table = new TableDTO(communityCards, pot.total(), chipsDelta);
+    private void startRoundOfBetting() {
+        bettingOrder = playersForBetting();
+        bettingIndex = 0;
+        nextToAct();
+    }
 
-                final MoveDTO move = player.getPlayer().makeMove(player.toDTO(), table);
-                moveMade(player, move);
+    /**
+     * Finds the next player to act in the current round of betting.  The passes of the round go on until all the
+     * players still betting have contributed the same.  When the round is over, moves the table to the next street (or
+     * showdown) or ends the game if only one player is left.
+     */
+    private void nextToAct() {
+        while (true) {
+            if (gamePlayers.size() == 1) {
+                // premature end of game --- the last standing wins
+                lastStandingWins();
+                state = State.GAME_OVER;
+                return;
+            }
+            if (bettingIndex == bettingOrder.size()) {
+                if (pot.equalised()) {
+                    break;
+                }
+                bettingOrder = playersForBetting();
+                bettingIndex = 0;
             }
-        } while (!playersEqualised());
+            if (pot.betting() < 2 && pot.equalised()) {
+                // nobody left to bet against
+                break;
+            }
+            final PlayerState player = bettingOrder.get(bettingIndex++);
+            if (!pot.isAllIn(player.getSeat())) {
+                toAct = player;
+                state = State.AWAIT_MOVE;
+                return;
+            }
+        }
+        state = communityCards.size() < 5? State.STREET: State.SHOWDOWN;
     }
 
     private List<PlayerState> playersForBetting() {
@@ -290,23 +642,16 @@ public class Engine {
         return rv;
     }
 
-    private void assureTwoPlayers() throws OnePlayerLeftException {
-        if (gamePlayers.size() == 1) {
-            throw new OnePlayerLeftException();
-        }
-    }
-
     private void moveMade(final PlayerState player, final MoveDTO move) {
-        if (!legal(move)) {
+        if (!legal(move, player)) {
             killPlayer(player, "Your move is illegal");
             return;
         }
 
-        final String name = player.getPlayer().name();
         final int max = pot.maxContribution();
-        final int pc = pot.playersContribution(name);
+        final int pc = pot.playersContribution(player.getSeat());
         if (move == MoveDTO.FOLD) {
-            bidListeners.forEach(p -> p.bidMade(new BidEvent(name, move)));
+            notifyBid(player, move);
             playerLostGame(player, "Player folded");
             return;
         } else if (move == MoveDTO.CALL && pc < max) {
@@ -320,15 +665,25 @@ public class Engine {
                 return;
             }
         } else if (move == MoveDTO.ALL_IN) {
-            throw new IllegalStateException("All in not implemented in this version and should be filter out by legality check");
+            player.attemptPayment(pot, player.getChips());
         }
-        bidListeners.forEach(p -> p.bidMade(new BidEvent(name, move)));
+        notifyBid(player, move);
     }
 
-    private boolean legal(final MoveDTO move) {
+    private void notifyBid(final PlayerState player, final MoveDTO move) {
+        if (!bidListeners.isEmpty()) {
+            final BidEvent event = new BidEvent(player.getPlayer().name(), move);
+            for (final BidListener listener : bidListeners) {
+                listener.bidMade(event);
+            }
+        }
+    }
+
+    private boolean legal(final MoveDTO move, final PlayerState player) {
         switch (move.getType()) {
         case ALL_IN:
-            return false;   // all in not implemented
+            // only when the player cannot afford to call
+            return pot.maxContribution() - pot.playersContribution(player.getSeat()) > player.getChips();
         case RAISE:
             return config.getMaximumBet() < 1 || move.getChips() <= config.getMaximumBet();
         case CALL:
@@ -340,11 +695,60 @@ public class Engine {
         }
     }
 
-    private boolean playersEqualised() {
-        return pot.equalised();
-    }
-
     public void setDealer(final Dealer dealer) {
         this.dealer = dealer;
     }
+
+    /**
+     * Makes {@link #run()} ask the players for their moves on the given executor, waiting no longer than {@link
+     * ConfigDTO#getMoveTimeout()}.  Players missing the deadline are interrupted, so the executor should be able to
+     * spare a thread for a player who ignores it.
+     *
+     * @param moveExecutor executor for the players' moves, null to ask the players synchronously
+     */
+    public void setMoveExecutor(final ExecutorService moveExecutor) {
+        this.moveExecutor = moveExecutor;
+    }
+
+    /**
+     * States of the table.
+     */
+    public static enum State {
+        /**
+         * the table is created, but nobody knows yet
+         */
+        CREATED,
+        /**
+         * a new game is about to start with the ante and blinds
+         */
+        BLINDS,
+        /**
+         * private cards are about to be dealt
+         */
+        DEAL,
+        /**
+         * the round of betting goes on, the next player to act is to be found
+         */
+        BETTING,
+        /**
+         * waiting for the move of the player at {@link Engine#getSeatToAct()}
+         */
+        AWAIT_MOVE,
+        /**
+         * the round of betting is over, the next community cards are to be dealt
+         */
+        STREET,
+        /**
+         * the last round of betting is over, the hands are to be shown
+         */
+        SHOWDOWN,
+        /**
+         * the game is over, winnings are to be paid
+         */
+        GAME_OVER,
+        /**
+         * only one player is left at the table
+         */
+        CLOSED
+    }
 }
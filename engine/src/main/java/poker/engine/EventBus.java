@@ -0,0 +1,362 @@
+/*
+ * @(#) EventBus.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import poker.BaseEvent;
+import poker.BidEvent;
+import poker.BidListener;
+import poker.CardEvent;
+import poker.CardListener;
+import poker.ConfigDTO;
+import poker.TableEvent;
+import poker.TableListener;
+import poker.TerminationEvent;
+import poker.TerminationListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers the events of many tables to their observers on separate consumer threads, so slow observers (loggers,
+ * statistics) don't slow the games down.
+ * <p/>
+ * Each table publishes into its own {@link Channel}: a pre-allocated single-producer single-consumer ring buffer
+ * registered with the table for the observer (see {@link #channel(Engine, Object)}), as the listeners the observer
+ * implements and for the table events it's interested in only, so the table doesn't create events nobody needs.  The
+ * configuration of the table is passed to the observer right away, on the table's thread.  The channels are spread
+ * over a fixed number of consumer threads; every
+ * channel is drained by one consumer only, so the events of a table are delivered in order.  An observer shared by
+ * tables may be called from several consumer threads and has to be thread-safe.
+ * <p/>
+ * When a channel is full, the table either waits for the consumer ({@link Overflow#BLOCK}) or drops the event
+ * ({@link Overflow#DROP}).  Idle consumers and blocked tables wait according to the {@link WaitStrategy}.  A channel
+ * is closed once its table publishes {@link TableEvent.Type#TABLE_CLOSED} or it is {@link Channel#close() closed}
+ * explicitly.
+ *
+ * @version created on 2014-06-27, 20:15
+ */
+class EventBus implements AutoCloseable {
+    private final int capacity;
+    private final WaitStrategy waitStrategy;
+    private final Overflow overflow;
+    private final Consumer[] consumers;
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean running = true;
+    private int nextConsumer;
+
+    /**
+     * @param consumers    number of consumer threads
+     * @param capacity     capacity of each channel, rounded up to a power of 2
+     * @param waitStrategy how idle consumers and blocked producers wait
+     * @param overflow     what the producer does when a channel is full
+     */
+    public EventBus(final int consumers, final int capacity, final WaitStrategy waitStrategy, final Overflow overflow) {
+        if (consumers < 1 || capacity < 1) {
+            throw new IllegalArgumentException("At least one consumer and capacity of one event are required");
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.waitStrategy = waitStrategy;
+        this.overflow = overflow;
+        this.consumers = new Consumer[consumers];
+        for (int i = 0; i < consumers; i++) {
+            this.consumers[i] = new Consumer("event-bus-" + i);
+            this.consumers[i].start();
+        }
+    }
+
+    /**
+     * Creates a channel for a new table and registers it with the table in place of the observer: as a {@link
+     * BidListener} or {@link CardListener} if the observer is one, and as a {@link TableListener} asking for the events
+     * the observer is interested in plus {@link TableEvent.Type#TABLE_CLOSED}, which closes the channel.
+     *
+     * @param observer any of {@link BidListener}, {@link CardListener}, {@link TableListener}
+     *
+     * @return the channel, already registered
+     */
+    public Channel channel(final Engine table, final Object observer) {
+        final Channel rv = channel(observer);
+        if (observer instanceof BidListener) {
+            table.registerObserver((BidListener)rv::consume);
+        }
+        if (observer instanceof CardListener) {
+            table.registerObserver((CardListener)rv::consume);
+        }
+        final TableListener listener = observer instanceof TableListener? (TableListener)observer: null;
+        table.registerObserver(new TableListener() {
+            @Override
+            public void configChanged(final ConfigDTO config) {
+                if (listener != null) {
+                    listener.configChanged(config);
+                }
+            }
+
+            @Override
+            public boolean isInterestedIn(final TableEvent.Type type) {
+                return type == TableEvent.Type.TABLE_CLOSED || listener != null && listener.isInterestedIn(type);
+            }
+
+            @Override
+            public void tableChanged(final TableEvent event) {
+                rv.consume(event);
+            }
+        });
+        return rv;
+    }
+
+    /**
+     * Creates a channel to publish the events into directly, with {@link Channel#consume(BaseEvent)}.
+     *
+     * @param observer any of {@link BidListener}, {@link CardListener}, {@link TableListener}, {@link
+     *                 TerminationListener}
+     */
+    public synchronized Channel channel(final Object observer) {
+        if (!running) {
+            throw new IllegalStateException("Event bus is closed");
+        }
+        final Channel rv = new Channel(observer, capacity);
+        consumers[nextConsumer++ % consumers.length].add(rv);
+        return rv;
+    }
+
+    /**
+     * @return number of events dropped because the channels were full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Delivers the events published so far and stops the consumer threads.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            running = false;
+        }
+        for (final Consumer consumer : consumers) {
+            consumer.join();
+        }
+    }
+
+    /**
+     * How the threads wait for the events to come (consumers) or for the space in a channel (blocked producers).
+     */
+    public static enum WaitStrategy {
+        /**
+         * the lowest latency, but burns a core per waiting thread
+         */
+        BUSY_SPIN {
+            @Override
+            void idle(final int attempt) {
+                // spin
+            }
+        },
+        YIELD {
+            @Override
+            void idle(final int attempt) {
+                Thread.yield();
+            }
+        },
+        /**
+         * spins for a while, then yields, then sleeps for increasing periods up to a millisecond
+         */
+        BACK_OFF {
+            @Override
+            void idle(final int attempt) {
+                if (attempt < 100) {
+                    return;
+                } else if (attempt < 200) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(Math.min(1000L << Math.min(attempt - 200, 10), 1000000L));
+                }
+            }
+        };
+
+        /**
+         * @param attempt number of the times the thread waited in a row
+         */
+        abstract void idle(final int attempt);
+    }
+
+    public static enum Overflow {
+        /**
+         * the table waits for the space in its channel
+         */
+        BLOCK,
+        /**
+         * the event is dropped and counted (see {@link #getDropped()})
+         */
+        DROP
+    }
+
+    /**
+     * A ring buffer of the events of one table.  Events are published by the table's thread and delivered by one of
+     * the consumer threads.
+     */
+    public class Channel implements AutoCloseable {
+        private final Object observer;
+        private final BaseEvent[] slots;
+        private final int mask;
+        /**
+         * sequence of the next event to be published, written by the producer only
+         */
+        private final AtomicLong tail = new AtomicLong();
+        /**
+         * sequence of the next event to be delivered, written by the consumer only
+         */
+        private final AtomicLong head = new AtomicLong();
+        /**
+         * producer's copy of {@link #head}, so it doesn't read the consumer's counter on every event
+         */
+        private long cachedHead;
+
+        private volatile boolean closed;
+
+        Channel(final Object observer, final int capacity) {
+            this.observer = observer;
+            this.slots = new BaseEvent[capacity];
+            this.mask = capacity - 1;
+        }
+
+        /**
+         * Publishes the event; {@link TableEvent.Type#TABLE_CLOSED} closes the channel.
+         */
+        public void consume(final BaseEvent event) {
+            publish(event);
+            if (event instanceof TableEvent && ((TableEvent)event).getType() == TableEvent.Type.TABLE_CLOSED) {
+                close();
+            }
+        }
+
+        private void publish(final BaseEvent event) {
+            final long t = tail.get();
+            if (t - cachedHead == slots.length) {
+                cachedHead = head.get();
+                for (int attempt = 0; t - cachedHead == slots.length; attempt++) {
+                    if (overflow == Overflow.DROP || !running && consumersGone()) {
+                        dropped.increment();
+                        return;
+                    }
+                    waitStrategy.idle(attempt);
+                    cachedHead = head.get();
+                }
+            }
+            slots[(int)t & mask] = event;
+            tail.lazySet(t + 1);
+        }
+
+        /**
+         * Marks the channel as closed: the consumer forgets it after delivering the events published so far.
+         */
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        /**
+         * Delivers the events published so far.  Called by the consumer thread only.
+         *
+         * @return number of events delivered
+         */
+        int drain() {
+            final long t = tail.get();
+            long h = head.get();
+            final int rv = (int)(t - h);
+            for (; h < t; h++) {
+                final int slot = (int)h & mask;
+                final BaseEvent event = slots[slot];
+                slots[slot] = null;
+                deliver(event);
+                head.lazySet(h + 1);
+            }
+            return rv;
+        }
+
+        boolean isFinished() {
+            return closed && head.get() == tail.get();
+        }
+
+        private void deliver(final BaseEvent event) {
+            if (event instanceof BidEvent && observer instanceof BidListener) {
+                ((BidListener)observer).bidMade((BidEvent)event);
+            } else if (event instanceof CardEvent && observer instanceof CardListener) {
+                ((CardListener)observer).cardsChanged((CardEvent)event);
+            } else if (event instanceof TableEvent && observer instanceof TableListener) {
+                final TableListener listener = (TableListener)observer;
+                if (listener.isInterestedIn(((TableEvent)event).getType())) {
+                    listener.tableChanged((TableEvent)event);
+                }
+            } else if (event instanceof TerminationEvent && observer instanceof TerminationListener) {
+                ((TerminationListener)observer).terminatedBy((TerminationEvent)event);
+            }
+        }
+    }
+
+    private boolean consumersGone() {
+        for (final Consumer consumer : consumers) {
+            if (consumer.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class Consumer extends Thread {
+        private final Queue<Channel> added = new ConcurrentLinkedQueue<>();
+        private final List<Channel> channels = new ArrayList<>();
+
+        Consumer(final String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        void add(final Channel channel) {
+            added.add(channel);
+        }
+
+        @Override
+        public void run() {
+            int attempt = 0;
+            while (true) {
+                // read the flag first: no channels are added once it's cleared
+                final boolean last = !running;
+                for (Channel channel = added.poll(); channel != null; channel = added.poll()) {
+                    channels.add(channel);
+                }
+
+                int delivered = 0;
+                for (final Iterator<Channel> itr = channels.iterator(); itr.hasNext(); ) {
+                    final Channel channel = itr.next();
+                    delivered += channel.drain();
+                    if (channel.isFinished()) {
+                        itr.remove();
+                    }
+                }
+
+                if (delivered > 0) {
+                    attempt = 0;
+                } else if (last) {
+                    return;
+                } else {
+                    waitStrategy.idle(attempt++);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,554 @@
+/*
+ * @(#) HandHistoryReader.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import poker.CardDTO;
+import poker.ConfigDTO;
+import poker.MoveDTO;
+import poker.Player;
+import poker.PlayerStateDTO;
+import poker.TableDTO;
+
+/**
+ * Reads the hand history written by {@link HandHistoryWriter}.  The segment files are memory-mapped and the records
+ * are read in place: a {@link HandRecord} is a view of the mapped bytes, reused for the next record, and its events
+ * are given to a {@link Visitor} as plain numbers, so reading allocates nothing per hand.
+ * <p/>
+ * The records can be streamed in parallel (see {@link #hands(boolean)}): the {@link #spliterator() spliterator} splits
+ * by segments and then by records within a segment.  The records of a table are in the order of its hands, but the
+ * tables are interleaved.
+ * <p/>
+ * A table can be {@link #replay(long, ConfigDTO) replayed}: a fresh {@link Engine} is dealt the recorded cards, given
+ * the recorded moves and its hands are compared with the recorded ones byte by byte.
+ *
+ * @version created on 2014-07-08, 21:10
+ */
+class HandHistoryReader implements AutoCloseable {
+    private static final MoveDTO.MoveType[] MOVE_TYPES = MoveDTO.MoveType.values();
+    /**
+     * rough size of a record, used for estimating the number of records left
+     */
+    private static final int TYPICAL_RECORD = 64;
+
+    private final List<FileChannel> channels = new ArrayList<>();
+    private final List<ByteBuffer> segments = new ArrayList<>();
+
+    /**
+     * Maps all the segment files in the directory.
+     */
+    public HandHistoryReader(final Path directory) throws IOException {
+        final List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(HandHistoryReader::isSegment).sorted().collect(toList());
+        }
+        try {
+            for (final Path file : files) {
+                final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                channels.add(channel);
+                segments.add(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private static boolean isSegment(final Path file) {
+        final String name = file.getFileName().toString();
+        return name.startsWith(HandHistoryWriter.SEGMENT_PREFIX) && name.endsWith(HandHistoryWriter.SEGMENT_SUFFIX);
+    }
+
+    /**
+     * @return spliterator of all the records; the record given to the action is valid during the call only (see
+     * {@link HandRecord#copy()})
+     */
+    public Spliterator<HandRecord> spliterator() {
+        final int last = segments.size() - 1;
+        return new Records(0, 0, last, last < 0? 0: segments.get(last).limit());
+    }
+
+    /**
+     * @param parallel whether the stream is to be parallel
+     *
+     * @return stream of all the records, reusing the record objects (see {@link #spliterator()})
+     */
+    public Stream<HandRecord> hands(final boolean parallel) {
+        return StreamSupport.stream(spliterator(), parallel);
+    }
+
+    /**
+     * Replays the hands of the table on a fresh engine and compares them with the recorded ones.
+     *
+     * @param table  id of the table
+     * @param config configuration the table was played with
+     *
+     * @return number of the first hand played differently or -1 if all the recorded hands were played the same
+     *
+     * @throws IllegalArgumentException if the history of the table isn't complete from its first hand
+     */
+    public int replay(final long table, final ConfigDTO config) {
+        final List<HandRecord> hands = hands(false).filter(r -> r.getTable() == table).map(HandRecord::copy)
+                .collect(toList());
+        if (hands.isEmpty() || hands.get(0).getHand() != 0) {
+            throw new IllegalArgumentException("No history of table " + table + " from its first hand");
+        }
+
+        final List<Player> players = new ArrayList<>();
+        for (int seat = 0; seat < hands.get(0).getPlayers(); seat++) {
+            players.add(new ReplayedPlayer("seat " + seat));
+        }
+        final Replay replay = new Replay();
+        final Engine engine = new Engine(players, config, RandomSource.splittable(table));
+        engine.setDealer(replay);
+        engine.registerObserver(new HandHistoryWriter.Recorder(table, replay::verify));
+
+        for (final HandRecord hand : hands) {
+            if (hand.getHand() != engine.getGamesPlayed()) {
+                throw new IllegalArgumentException("Hand " + engine.getGamesPlayed() + " of table " + table + " is missing");
+            }
+            replay.load(hand);
+            try {
+                while (engine.getGamesPlayed() == hand.getHand() && engine.getState() != Engine.State.CLOSED) {
+                    if (engine.step() == Engine.State.AWAIT_MOVE) {
+                        replay.move(engine);
+                    }
+                }
+            } catch (DivergedException e) {
+                return hand.getHand();
+            }
+            if (replay.diverged || engine.getGamesPlayed() == hand.getHand()) {
+                return hand.getHand();
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (final FileChannel channel : channels) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        channels.clear();
+        segments.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Prints the summary of the hand history in the given directory or replays the given tables, played with the
+     * {@link Runner}'s configuration (give the same {@code move-timeout}):
+     * <pre>
+     * $ java -classpath ... poker.engine.HandHistoryReader directory [table ...]
+     * </pre>
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: HandHistoryReader directory [table ...]");
+            return;
+        }
+        try (HandHistoryReader reader = new HandHistoryReader(Paths.get(args[0]))) {
+            if (args.length == 1) {
+                System.out.println("Hands: " + reader.hands(true).count());
+                System.out.println("Tables: " + reader.hands(true).mapToLong(HandRecord::getTable).distinct().count());
+            }
+            for (int i = 1; i < args.length; i++) {
+                final int diverged = reader.replay(Long.parseLong(args[i]), Runner.CONFIG);
+                System.out.println("Table " + args[i] + (diverged < 0? " replayed identically":
+                        " played differently from hand " + diverged));
+            }
+        }
+    }
+
+    /**
+     * Receives the content of a record, in the order it was written.  Cards are given as {@link CardDTO#index()
+     * indices}.
+     */
+    interface Visitor {
+        /**
+         * A player at the table before the hand, the dealer first.
+         */
+        default void player(final int seat, final int chips) {
+        }
+
+        default void forcedBet(final int seat, final int chips) {
+        }
+
+        default void privateCards(final int seat, final int first, final int second) {
+        }
+
+        default void communityCard(final int card) {
+        }
+
+        /**
+         * @param raise chips raised by (RAISE only)
+         * @param paid  chips the move put into the pot
+         */
+        default void moveMade(final int seat, final MoveDTO.MoveType type, final int raise, final int paid) {
+        }
+
+        default void moveTimedOut(final int seat) {
+        }
+
+        default void playerRemoved(final int seat) {
+        }
+
+        /**
+         * Winnings of a player, after all the events of the hand.
+         */
+        default void won(final int seat, final int chips) {
+        }
+    }
+
+    /**
+     * A view of one record.  Not thread-safe.
+     */
+    static class HandRecord {
+        private ByteBuffer buffer;
+        private int offset;
+        private int length;
+        private long table;
+        private int hand;
+        private int players;
+        private int playersOffset;
+        private int cursor;
+
+        HandRecord wrap(final ByteBuffer buffer, final int offset, final int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+            cursor = offset;
+            table = readVar();
+            hand = (int)readVar();
+            players = buffer.get(cursor++);
+            playersOffset = cursor;
+            return this;
+        }
+
+        /**
+         * @return a view of the same record which isn't reused for the next one
+         */
+        public HandRecord copy() {
+            return new HandRecord().wrap(buffer, offset, length);
+        }
+
+        public long getTable() {
+            return table;
+        }
+
+        /**
+         * @return number of the hand at the table, the first one is 0
+         */
+        public int getHand() {
+            return hand;
+        }
+
+        /**
+         * @return number of players at the table before the hand
+         */
+        public int getPlayers() {
+            return players;
+        }
+
+        /**
+         * @return length of the record in bytes, without the length itself
+         */
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * Gives the content of the record to the visitor.
+         *
+         * @throws IllegalStateException if the record is corrupted
+         */
+        public void accept(final Visitor visitor) {
+            cursor = playersOffset;
+            for (int i = 0; i < players; i++) {
+                final int seat = buffer.get(cursor++);
+                visitor.player(seat, (int)readVar());
+            }
+            for (int event = buffer.get(cursor++) & 0xFF; event != HandHistoryWriter.END_OF_EVENTS;
+                 event = buffer.get(cursor++) & 0xFF) {
+                final int seat = event & 0x1F;
+                switch (event >>> 5) {
+                case HandHistoryWriter.TAG_FORCED:
+                    visitor.forcedBet(seat, (int)readVar());
+                    break;
+                case HandHistoryWriter.TAG_PRIVATE:
+                    final int cards = (buffer.get(cursor++) & 0xFF) << 8 | buffer.get(cursor++) & 0xFF;
+                    visitor.privateCards(seat, cards >>> 6, cards & 0x3F);
+                    break;
+                case HandHistoryWriter.TAG_COMMUNITY:
+                    visitor.communityCard(buffer.get(cursor++));
+                    break;
+                case HandHistoryWriter.TAG_MOVE:
+                    final MoveDTO.MoveType type = MOVE_TYPES[buffer.get(cursor++)];
+                    final int raise = type == MoveDTO.MoveType.RAISE? (int)readVar(): 0;
+                    visitor.moveMade(seat, type, raise, (int)readVar());
+                    break;
+                case HandHistoryWriter.TAG_TIMEOUT:
+                    visitor.moveTimedOut(seat);
+                    break;
+                case HandHistoryWriter.TAG_REMOVED:
+                    visitor.playerRemoved(seat);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown event " + event + " in hand " + hand + " of table " + table);
+                }
+            }
+            for (int winners = buffer.get(cursor++); winners > 0; winners--) {
+                final int seat = buffer.get(cursor++);
+                visitor.won(seat, (int)readVar());
+            }
+        }
+
+        /**
+         * @return true if the record consists of the given bytes
+         */
+        boolean matches(final byte[] bytes, final int length) {
+            if (length != this.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(offset + i) != bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long readVar() {
+            long rv = 0;
+            for (int shift = 0; ; shift += 7) {
+                final byte b = buffer.get(cursor++);
+                rv |= (long)(b & 0x7F) << shift;
+                if (b >= 0) {
+                    return rv;
+                }
+            }
+        }
+    }
+
+    /**
+     * Records from {@code position} in {@code segment} up to {@code end} in {@code lastSegment}.
+     */
+    private class Records implements Spliterator<HandRecord> {
+        private final HandRecord record = new HandRecord();
+        private final int lastSegment;
+        private final int end;
+        private int segment;
+        private int position;
+
+        Records(final int segment, final int position, final int lastSegment, final int end) {
+            this.segment = segment;
+            this.position = position;
+            this.lastSegment = lastSegment;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super HandRecord> action) {
+            while (segment <= lastSegment) {
+                final ByteBuffer buffer = segments.get(segment);
+                final int limit = segment == lastSegment? end: buffer.limit();
+                if (position + 4 <= limit) {
+                    final int length = buffer.getInt(position);
+                    if (length > 0) {
+                        record.wrap(buffer, position + 4, length);
+                        position += 4 + length;
+                        action.accept(record);
+                        return true;
+                    }
+                }
+                segment++;
+                position = 0;
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<HandRecord> trySplit() {
+            if (segment < lastSegment) {
+                final int middle = (segment + lastSegment + 1) / 2;
+                final Records prefix = new Records(segment, position, middle - 1, segments.get(middle - 1).limit());
+                segment = middle;
+                position = 0;
+                return prefix;
+            } else if (segment > lastSegment) {
+                return null;
+            }
+
+            // a single segment left: split at the first record after the middle
+            final ByteBuffer buffer = segments.get(segment);
+            final int middle = position + (end - position) / 2;
+            int split = position;
+            while (split < middle && split + 4 <= end && buffer.getInt(split) > 0) {
+                split += 4 + buffer.getInt(split);
+            }
+            if (split == position || split + 4 > end || buffer.getInt(split) <= 0) {
+                return null;
+            }
+            final Records prefix = new Records(segment, position, segment, split);
+            position = split;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            long bytes = -position;
+            for (int i = segment; i <= lastSegment; i++) {
+                bytes += i == lastSegment? end: segments.get(i).limit();
+            }
+            return Math.max(bytes / TYPICAL_RECORD, 0);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+
+    /**
+     * Deals the recorded cards of a hand, gives the recorded moves and verifies the hand played.
+     */
+    private static class Replay implements Dealer, Visitor {
+        private final int[] cards = new int[52];
+        private int dealt;
+        private int cardCount;
+        private final List<MoveDTO> moves = new ArrayList<>();
+        private final List<Integer> seats = new ArrayList<>();
+        private int nextMove;
+        private HandRecord expected;
+        private boolean diverged;
+
+        void load(final HandRecord hand) {
+            expected = hand;
+            dealt = 0;
+            cardCount = 0;
+            moves.clear();
+            seats.clear();
+            nextMove = 0;
+            hand.accept(this);
+        }
+
+        void move(final Engine engine) {
+            final int seat = engine.getSeatToAct();
+            if (nextMove == moves.size() || seats.get(nextMove) != seat) {
+                throw new DivergedException();
+            }
+            final MoveDTO move = moves.get(nextMove++);
+            if (move == null) {
+                engine.moveTimedOut(seat);
+            } else {
+                engine.submitMove(seat, move);
+            }
+        }
+
+        void verify(final byte[] record, final int length) {
+            diverged |= !expected.matches(record, length);
+        }
+
+        @Override
+        public void privateCards(final int seat, final int first, final int second) {
+            cards[cardCount++] = first;
+            cards[cardCount++] = second;
+        }
+
+        @Override
+        public void communityCard(final int card) {
+            cards[cardCount++] = card;
+        }
+
+        @Override
+        public void moveMade(final int seat, final MoveDTO.MoveType type, final int raise, final int paid) {
+            seats.add(seat);
+            switch (type) {
+            case FOLD:
+                moves.add(MoveDTO.FOLD);
+                break;
+            case CALL:
+                moves.add(MoveDTO.CALL);
+                break;
+            case ALL_IN:
+                moves.add(MoveDTO.ALL_IN);
+                break;
+            default:
+                moves.add(MoveDTO.raise(raise));
+            }
+        }
+
+        @Override
+        public void moveTimedOut(final int seat) {
+            seats.add(seat);
+            moves.add(null);
+        }
+
+        @Override
+        public void burn() {
+            // the recorded cards are the ones dealt
+        }
+
+        @Override
+        public void shuffle() {
+            // the cards of the next hand are loaded instead
+        }
+
+        @Override
+        public CardDTO deal() {
+            if (dealt == cardCount) {
+                throw new DivergedException();
+            }
+            return CardDTO.of(cards[dealt++]);
+        }
+    }
+
+    private static class ReplayedPlayer implements Player {
+        private final String name;
+
+        ReplayedPlayer(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public MoveDTO makeMove(final PlayerStateDTO pi, final TableDTO table) {
+            throw new UnsupportedOperationException("Moves of " + name + " are replayed");
+        }
+    }
+
+    /**
+     * The table asked for a card or a move that wasn't recorded.
+     */
+    private static class DivergedException extends RuntimeException {
+    }
+}
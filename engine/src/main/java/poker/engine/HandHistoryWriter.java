@@ -0,0 +1,297 @@
+/*
+ * @(#) HandHistoryWriter.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import poker.CardDTO;
+import poker.MoveDTO;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Writes the history of every hand played as a compact binary record.  The records are appended to memory-mapped
+ * segment files, one segment per writing thread at a time, so the tables don't contend for a file and the operating
+ * system writes the pages back in the background.  A full segment is replaced with a new file.  A segment is created
+ * at the full size and cut down to its records when closed; one that wasn't closed, e.g. when the process died, keeps
+ * its size and ends with untouched zeros.
+ * <p/>
+ * Every table gets its own {@link Recorder} (see {@link #recorder(long)}), which encodes the hand into a reusable
+ * array while it's played and appends it to the thread's segment with a single copy when it's over.  Encoding
+ * allocates nothing.
+ * <p/>
+ * Record layout (big-endian, {@code var} is an unsigned LEB128 varint, a card is its 6-bit {@link CardDTO#index()}):
+ * <pre>
+ * u32  length of the rest of the record; the end of the file or 0 (the untouched end of a segment not closed) ends
+ *      the segment
+ * var  table id
+ * var  number of the hand at the table, the first one is 0
+ * u8   number of players n, then n times: u8 seat, var chips before the hand (dealer first)
+ * events, each a u8 tag &lt;&lt; 5 | seat followed by:
+ *      FORCED      var chips (ante or blind)
+ *      PRIVATE     u16 first card &lt;&lt; 6 | second card
+ *      COMMUNITY   u8 card (seat 0)
+ *      MOVE        u8 {@link MoveDTO.MoveType} ordinal, var raise (RAISE only), var chips put into the pot
+ *      TIMEOUT     nothing, the fold or removal following it is implied
+ *      REMOVED     nothing, reported before the move causing it
+ * u8   0xFF end of events, then u8 number of winners k and k times: u8 seat, var chips won
+ * </pre>
+ *
+ * @version created on 2014-07-04, 19:05
+ * @see HandObserver
+ */
+class HandHistoryWriter implements AutoCloseable {
+    static final int TAG_FORCED = 0;
+    static final int TAG_PRIVATE = 1;
+    static final int TAG_COMMUNITY = 2;
+    static final int TAG_MOVE = 3;
+    static final int TAG_TIMEOUT = 4;
+    static final int TAG_REMOVED = 5;
+    static final int END_OF_EVENTS = 0xFF;
+    static final String SEGMENT_PREFIX = "hands-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final AtomicInteger segments = new AtomicInteger();
+    private final Queue<Segment> open = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Segment> current = new ThreadLocal<>();
+    private final LongAdder hands = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    private volatile boolean closed;
+
+    /**
+     * @param directory   existing directory for the segment files
+     * @param segmentSize size of a segment file in bytes
+     */
+    public HandHistoryWriter(final Path directory, final int segmentSize) {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("Segment too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Creates the observer recording the hands of a new table.  It should be registered with the table.
+     *
+     * @param table id of the table written into its records
+     */
+    public Recorder recorder(final long table) {
+        return new Recorder(table, this::append);
+    }
+
+    /**
+     * @return number of hands written
+     */
+    public long getHands() {
+        return hands.sum();
+    }
+
+    /**
+     * @return number of bytes written, including the record lengths
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * Flushes and closes all the segments.  No hands may be finished afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        IOException failure = null;
+        for (Segment segment = open.poll(); segment != null; segment = open.poll()) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void append(final byte[] record, final int length) {
+        if (closed) {
+            throw new IllegalStateException("Hand history is closed");
+        }
+        if (length + 4 > segmentSize) {
+            throw new IllegalArgumentException("Record of " + length + " bytes doesn't fit in a segment");
+        }
+        Segment segment = current.get();
+        try {
+            if (segment == null || segment.buffer.remaining() < length + 4) {
+                if (segment != null) {
+                    open.remove(segment);
+                    segment.close();
+                }
+                segment = new Segment(directory.resolve(String.format("%s%05d%s", SEGMENT_PREFIX,
+                        segments.getAndIncrement(), SEGMENT_SUFFIX)), segmentSize);
+                open.add(segment);
+                current.set(segment);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open a hand history segment", e);
+        }
+        segment.buffer.putInt(length);
+        segment.buffer.put(record, 0, length);
+        hands.increment();
+        bytes.add(length + 4);
+    }
+
+    private static class Segment {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        Segment(final Path file, final int size) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        /**
+         * Flushes the segment and truncates it to its records.  Where a mapped file can't be truncated, the segment
+         * keeps its size and the zero length after the last record ends it.
+         */
+        void close() throws IOException {
+            try {
+                buffer.force();
+                try {
+                    channel.truncate(buffer.position());
+                } catch (IOException e) {
+                    // the file is still mapped: it can't be unmapped explicitly, only collected
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Encodes the hands of one table.  Used by the table's thread only.
+     */
+    static class Recorder implements HandObserver {
+        private final long table;
+        private final ObjIntConsumer<byte[]> sink;
+        private byte[] record = new byte[256];
+        private int length;
+
+        /**
+         * @param sink gets every finished record (without the length) and its length; the array is reused for the
+         *             next hand
+         */
+        Recorder(final long table, final ObjIntConsumer<byte[]> sink) {
+            this.table = table;
+            this.sink = sink;
+        }
+
+        @Override
+        public void handStarted(final int hand, final List<PlayerState> players) {
+            length = 0;
+            ensure(21 + players.size() * 6);
+            putVar(table);
+            putVar(hand);
+            record[length++] = (byte)players.size();
+            for (final PlayerState player : players) {
+                record[length++] = (byte)player.getSeat();
+                putVar(player.getChips());
+            }
+        }
+
+        @Override
+        public void forcedBet(final int seat, final int chips) {
+            tag(TAG_FORCED, seat);
+            putVar(chips);
+        }
+
+        @Override
+        public void privateCards(final int seat, final CardDTO first, final CardDTO second) {
+            tag(TAG_PRIVATE, seat);
+            final int cards = first.index() << 6 | second.index();
+            record[length++] = (byte)(cards >>> 8);
+            record[length++] = (byte)cards;
+        }
+
+        @Override
+        public void communityCard(final CardDTO card) {
+            tag(TAG_COMMUNITY, 0);
+            record[length++] = (byte)card.index();
+        }
+
+        @Override
+        public void moveMade(final int seat, final MoveDTO move, final int paid) {
+            tag(TAG_MOVE, seat);
+            record[length++] = (byte)move.getType().ordinal();
+            if (move.getType() == MoveDTO.MoveType.RAISE) {
+                putVar(move.getChips());
+            }
+            putVar(paid);
+        }
+
+        @Override
+        public void moveTimedOut(final int seat) {
+            tag(TAG_TIMEOUT, seat);
+        }
+
+        @Override
+        public void playerRemoved(final int seat) {
+            tag(TAG_REMOVED, seat);
+        }
+
+        @Override
+        public void handFinished(final int[] winnings) {
+            ensure(2 + winnings.length * 6);
+            record[length++] = (byte)END_OF_EVENTS;
+            final int count = length++;
+            int winners = 0;
+            for (int seat = 0; seat < winnings.length; seat++) {
+                if (winnings[seat] > 0) {
+                    record[length++] = (byte)seat;
+                    putVar(winnings[seat]);
+                    winners++;
+                }
+            }
+            record[count] = (byte)winners;
+            sink.accept(record, length);
+        }
+
+        private void tag(final int tag, final int seat) {
+            // the longest event: tag, move type and two varints
+            ensure(12);
+            record[length++] = (byte)(tag << 5 | seat);
+        }
+
+        private void putVar(final long chips) {
+            long value = chips;
+            while ((value & ~0x7FL) != 0) {
+                record[length++] = (byte)(value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            record[length++] = (byte)value;
+        }
+
+        private void ensure(final int bytes) {
+            if (record.length - length < bytes) {
+                record = Arrays.copyOf(record, Math.max(record.length * 2, length + bytes));
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * @(#) HandObserver.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import poker.CardDTO;
+import poker.MoveDTO;
+
+import java.util.List;
+
+/**
+ * Engine's internal observer of the course of every hand: seats, cards, moves and the chips they put into the pot.
+ * Unlike the public listeners it gets no event objects, so observing a hand costs no allocation.  Register it with
+ * {@link Engine#registerObserver(Object)}; it's called by the table's thread, in the order the things happen.
+ *
+ * @version created on 2014-07-04, 18:30
+ */
+interface HandObserver {
+    /**
+     * A new hand starts, before the ante is paid.
+     *
+     * @param hand    number of the hand at the table, the first one is 0
+     * @param players players at the table with their chips, the dealer first
+     */
+    void handStarted(int hand, List<PlayerState> players);
+
+    /**
+     * The ante or a blind has been paid.
+     */
+    void forcedBet(int seat, int chips);
+
+    void privateCards(int seat, CardDTO first, CardDTO second);
+
+    void communityCard(CardDTO card);
+
+    /**
+     * The player has made his move.
+     *
+     * @param paid chips the move put into the pot
+     */
+    void moveMade(int seat, MoveDTO move, int paid);
+
+    /**
+     * The player missed the deadline for his move.  The fold (or removal) following it isn't reported as a move.
+     */
+    void moveTimedOut(int seat);
+
+    /**
+     * The player has been removed from the table.  Removal for an illegal move is reported before the move.
+     */
+    void playerRemoved(int seat);
+
+    /**
+     * @param winnings chips won by seat
+     */
+    void handFinished(int[] winnings);
+}
@@ -8,24 +8,24 @@ package poker.engine;
 
 import poker.CardDTO;
 
-import java.security.SecureRandom;
-import java.util.List;
-
 /**
  * Implements a dealer dealing from a deck with infinite number of cards.
  *
  * @version created on 26/04/14, 10:08
  */
 class InfiniteDealer implements Dealer {
-    private final static List<CardDTO> DECK = CardDTO.deck();
-    private final SecureRandom rnd;
+    private final RandomSource rnd;
+
+    public InfiniteDealer(final RandomSource rnd) {
+        this.rnd = rnd;
+    }
 
     public InfiniteDealer(byte[] seed) {
-        rnd = new SecureRandom(seed);
+        this(RandomSource.secure(seed));
     }
 
     public InfiniteDealer() {
-        rnd = new SecureRandom();
+        this(RandomSource.splittable());
     }
 
     @Override
@@ -40,6 +40,6 @@ class InfiniteDealer implements Dealer {
 
     @Override
     public CardDTO deal() {
-        return DECK.get(rnd.nextInt(DECK.size()));
+        return CardDTO.of(rnd.nextInt(52));
     }
 }
@@ -1,15 +0,0 @@
-/*
- * @(#) OnePlayerLeftException.java
- *
- * Copyright 2014 the poker project.
- */
-
-package poker.engine;
-
-/**
- * Exception thrown if during the game only one player is left.
- *
- * @version created on 2014-04-17, 16:24
- */
-class OnePlayerLeftException extends Exception {
-}
@@ -9,12 +9,14 @@ package poker.engine;
 import poker.CardDTO;
 import poker.CardEvent;
 import poker.CardListener;
+import poker.CardSet;
 import poker.Player;
 import poker.PlayerStateDTO;
 import poker.TerminationEvent;
 import poker.TerminationListener;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -24,18 +26,25 @@ import java.util.List;
  */
 class PlayerState {
     private final Player player;
+    private final int seat;
 
     private int chips;
+    /**
+     * the private cards in the order dealt, which with more decks than one may be the same card twice
+     */
     private List<CardDTO> cards;
+    private CardSet hand;
 
-    public PlayerState(final Player player, final int chips) {
+    public PlayerState(final Player player, final int seat, final int chips) {
         this.player = player;
+        this.seat = seat;
         this.chips = chips;
-        cards = new ArrayList<>();
+        cards = Collections.emptyList();
+        hand = CardSet.EMPTY;
     }
 
     public PlayerStateDTO toDTO() {
-        return new PlayerStateDTO(new ArrayList<>(cards), chips);
+        return new PlayerStateDTO(cards, chips);
     }
 
     @Override
@@ -45,23 +54,26 @@ class PlayerState {
 
     /**
      * Attempts to pay {@code amount} to the pot.  If player doesn't have enough money, he is notified that he lost and
-     * method returns false;
+     * method returns false; if the payment leaves the player with no chips, he goes all in.
      *
      * @param pot    pot to which the payment is to be made
      * @param amount amount to be paid
      *
      * @return true if payment is successful
      */
-    public boolean attemptPayment(final Pot pot, final int amount) {
+    public boolean attemptPayment(final SeatPot pot, final int amount) {
         if (chips < amount) {
             return false;
         }
         chips -= amount;
-        pot.add(player.name(), amount);
+        pot.add(seat, amount);
+        if (chips == 0) {
+            pot.allIn(seat);
+        }
         return true;
     }
 
-    public void reward(final Integer chips) {
+    public void reward(final int chips) {
         this.chips += chips;
     }
 
@@ -81,17 +93,35 @@ class PlayerState {
         return player;
     }
 
-    public void setCards(final List<CardDTO> cards) {
-        this.cards = cards;
+    /**
+     * @return index of the player's seat at the table (the position in the list of players the table was created with)
+     */
+    public int getSeat() {
+        return seat;
+    }
+
+    public void setCards(final CardDTO first, final CardDTO second) {
+        this.cards = Collections.unmodifiableList(Arrays.asList(first, second));
+        this.hand = CardSet.of(first.bit() | second.bit());
         if (player instanceof CardListener) {
             ((CardListener)player).cardsChanged(new CardEvent(CardEvent.Type.PRIVATE_CARD, player.name(), cards));
         }
     }
 
+    /**
+     * @return the private cards in the order dealt
+     */
     List<CardDTO> getCards() {
         return cards;
     }
 
+    /**
+     * @return the private cards as a set, with fewer than two of them if the same card was dealt twice
+     */
+    CardSet getHand() {
+        return hand;
+    }
+
     public int getChips() {
         return chips;
     }
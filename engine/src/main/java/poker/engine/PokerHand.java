@@ -7,7 +7,9 @@
 package poker.engine;
 
 import poker.CardDTO;
+import poker.CardSet;
 import poker.tools.HandEvaluator;
+import poker.tools.HandRanker;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -18,12 +20,14 @@ import java.util.function.Function;
 
 /**
  * A representation of a Poker 'hand' (5 cards).
+ * <p/>
+ * Hands are compared on the strength computed by {@link HandRanker}; the actual five cards forming the hand are only
+ * resolved (through {@link HandEvaluator}) when asked for.
  *
  * @version created on 04/05/14, 14:18
  */
 class PokerHand implements Comparable<PokerHand> {
     private static final Map<HandType, FCC> EVALUATORS = new LinkedHashMap<HandType, FCC>() {{
-        put(HandType.ROYAL_FLUSH, HandEvaluator::royalFlush);
         put(HandType.ROYAL_FLUSH, HandEvaluator::royalFlush);
         put(HandType.STRAIGHT_FLUSH, HandEvaluator::straightFlush);
         put(HandType.FOUR_OF_A_KIND, HandEvaluator::fourOfAKind);
@@ -36,65 +40,84 @@ class PokerHand implements Comparable<PokerHand> {
     }};
 
     private final String owner;
-    private final HandType type;
+    private final int rank;
+    private final CardSet all;
 
-    private final List<CardDTO> cards;
+    private List<CardDTO> cards;
 
-    private PokerHand(final String owner, final List<CardDTO> cards, final HandType type) {
+    private PokerHand(final String owner, final CardSet all, final int rank) {
         this.owner = owner;
-        this.type = type;
-        this.cards = Collections.unmodifiableList(cards);
+        this.all = all;
+        this.rank = rank;
     }
 
+    /**
+     * Ranks the cards as listed, so a card dealt twice by a dealer with more decks than one counts twice.
+     */
     public static PokerHand selectBest(final String owner, final List<CardDTO> com, final List<CardDTO> own) {
-        final List<CardDTO> all = join(com, own);
-
-        for (final Map.Entry<HandType, FCC> entry : EVALUATORS.entrySet()) {
-            final List<CardDTO> cards = entry.getValue().apply(all);
-            if (cards != null) {
-                return new PokerHand(owner, cards, entry.getKey());
-            }
-        }
-
-        return new PokerHand(owner, HandEvaluator.topN(all, 5), HandType.HIGH_CARD);
-    }
-
-    private static List<CardDTO> join(final List<CardDTO> com, final List<CardDTO> own) {
         final List<CardDTO> all = new ArrayList<>(com.size() + own.size());
         all.addAll(com);
         all.addAll(own);
-        return Collections.unmodifiableList(all);
+        return new PokerHand(owner, CardSet.of(all), HandRanker.rank(all));
+    }
+
+    public static PokerHand selectBest(final String owner, final CardSet com, final CardSet own) {
+        return selectBest(owner, com.union(own));
+    }
+
+    private static PokerHand selectBest(final String owner, final CardSet all) {
+        return new PokerHand(owner, all, HandRanker.rank(all));
     }
 
     @Override
     public String toString() {
-        return CardDTO.toString(cards) + ": " + type.name().replace("_", " ");
+        return CardDTO.toString(getCards()) + ": " + getType().name().replace("_", " ");
     }
 
     @Override
     public int compareTo(final PokerHand o) {
-        final int typeCmp = -type.compareTo(o.type);
-        if (typeCmp != 0) {
-            return typeCmp;
-        }
-        for (int i = 0; i < 5; i++) {
-            final int cmp = cards.get(i).getValue().compareTo(o.cards.get(i).getValue());
-            if (cmp != 0) {
-                return cmp;
-            }
-        }
-        return 0;
+        return Integer.compare(rank, o.rank);
     }
 
     public String getOwner() {
         return owner;
     }
 
+    public int getRank() {
+        return rank;
+    }
+
     public HandType getType() {
-        return type;
+        switch (HandRanker.category(rank)) {
+        case HandRanker.STRAIGHT_FLUSH:
+            return (rank >>> 16 & 0xF) == CardDTO.Value.ACE.ordinal()? HandType.ROYAL_FLUSH: HandType.STRAIGHT_FLUSH;
+        case HandRanker.FOUR_OF_A_KIND:
+            return HandType.FOUR_OF_A_KIND;
+        case HandRanker.FULL_HOUSE:
+            return HandType.FULL_HOUSE;
+        case HandRanker.FLUSH:
+            return HandType.FLUSH;
+        case HandRanker.STRAIGHT:
+            return HandType.STRAIGHT;
+        case HandRanker.THREE_OF_A_KIND:
+            return HandType.THREE_OF_A_KIND;
+        case HandRanker.TWO_PAIRS:
+            return HandType.TWO_PAIRS;
+        case HandRanker.ONE_PAIR:
+            return HandType.ONE_PAIR;
+        default:
+            return HandType.HIGH_CARD;
+        }
     }
 
     public List<CardDTO> getCards() {
+        if (cards == null) {
+            final HandType type = getType();
+            final FCC evaluator = EVALUATORS.get(type);
+            final List<CardDTO> list = all.asList();
+            final List<CardDTO> best = evaluator != null? evaluator.apply(list): HandEvaluator.topN(list, 5);
+            cards = Collections.unmodifiableList(best);
+        }
         return cards;
     }
 
@@ -0,0 +1,85 @@
+/*
+ * @(#) RandomSource.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+/**
+ * Source of random numbers used by dealers.
+ * <p/>
+ * Sources are not thread-safe and are meant to be owned by a single table; {@link #split()} gives an independent stream
+ * for another table without sharing any state.  The simulation grade sources ({@link #splittable()}, {@link
+ * #xoroshiro()}, {@link #counter(long)}) are orders of magnitude faster than {@link #secure()}, which should only be
+ * used when the cards have to be audited.
+ *
+ * @version created on 2014-06-09, 19:42
+ */
+interface RandomSource {
+    /**
+     * @return uniformly distributed 64 bits
+     */
+    long nextLong();
+
+    /**
+     * @param bound the upper bound (exclusive), has to be positive
+     *
+     * @return uniformly distributed value between 0 (inclusive) and {@code bound} (exclusive)
+     */
+    default int nextInt(final int bound) {
+        // same rejection scheme as java.util.Random, fed with the top 31 bits
+        int r = (int)(nextLong() >>> 33);
+        final int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int)((bound * (long)r) >> 31);
+        }
+        for (int u = r; u - (r = u % bound) + m < 0; u = (int)(nextLong() >>> 33)) {
+            // reject values from the incomplete last range
+        }
+        return r;
+    }
+
+    /**
+     * @return a new source producing a stream independent from this one
+     */
+    RandomSource split();
+
+    static RandomSource secure() {
+        return new SecureRandomSource();
+    }
+
+    static RandomSource secure(final byte[] seed) {
+        return new SecureRandomSource(seed);
+    }
+
+    static RandomSource splittable() {
+        return new SplittableRandomSource();
+    }
+
+    static RandomSource splittable(final long seed) {
+        return new SplittableRandomSource(seed);
+    }
+
+    /**
+     * Gives the sources of many tables so that each table's source depends on the seed and its index only, not on
+     * how many other sources were derived before or in what order.
+     *
+     * @return the {@code index}-th leaf of the split tree rooted at {@link #splittable(long)}
+     */
+    static RandomSource splittable(final long seed, final int index) {
+        return SplittableRandomSource.leaf(seed, index);
+    }
+
+    static RandomSource xoroshiro() {
+        return new XoroshiroRandomSource();
+    }
+
+    static RandomSource xoroshiro(final long seed) {
+        return new XoroshiroRandomSource(seed);
+    }
+
+    static RandomSource counter(final long seed) {
+        return new CounterRandomSource(seed);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * @(#) ReplayableDealer.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import poker.CardDTO;
+
+/**
+ * Dealer of a replayable stream of decks: every shuffle starts a new deck from the ordered one, drawn with a new split
+ * of the source.  So the n-th deck depends only on the source and n, not on how many cards were dealt from the decks
+ * before, and dealers given equal sources deal the same decks to tables however differently they're played.
+ * <p/>
+ * Like {@link ArrayDealer}, the deck is shuffled lazily as the cards are dealt and nothing is allocated but the split
+ * per deck.
+ * <p/>
+ * A deck dealt past its 52 cards without a shuffle is reshuffled in place, starting from the order of its first 52
+ * cards and drawing on with its source.  The cards after the 52nd are a different order from the first 52, but they
+ * are still determined by the source and n alone.
+ *
+ * @version created on 2014-07-12, 16:40
+ */
+class ReplayableDealer implements Dealer {
+    private static final int DECK_SIZE = 52;
+
+    private final int[] deck = new int[DECK_SIZE];
+    private final RandomSource decks;
+    private RandomSource rnd;
+
+    private int dealt;
+
+    /**
+     * @param decks source of the stream of decks, used only for splitting
+     */
+    public ReplayableDealer(final RandomSource decks) {
+        this.decks = decks;
+        shuffle();
+    }
+
+    @Override
+    public void burn() {
+        deal();
+    }
+
+    @Override
+    public void shuffle() {
+        for (int i = 0; i < DECK_SIZE; i++) {
+            deck[i] = i;
+        }
+        dealt = 0;
+        rnd = decks.split();
+    }
+
+    @Override
+    public CardDTO deal() {
+        if (dealt == DECK_SIZE) {
+            // all 52 cards are out: reshuffle the deck as it was left, drawing on with the deck's source
+            dealt = 0;
+        }
+        final int pick = dealt + rnd.nextInt(DECK_SIZE - dealt);
+        final int card = deck[pick];
+        deck[pick] = deck[dealt];
+        deck[dealt++] = card;
+        return CardDTO.of(card);
+    }
+}
@@ -7,121 +7,528 @@
 package poker.engine;
 
 import static java.util.Map.Entry.comparingByValue;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import poker.ConfigDTO;
 import poker.Player;
+import poker.PlayerFactory;
 import poker.TableEvent;
 import poker.TableListener;
 
 public class Runner {
     private static final boolean DEBUG = Boolean.getBoolean("debug");
-    private static final ConfigDTO CONFIG = new ConfigDTO(1000, 100, true);
+    /**
+     * seed of the tables' random sources, null for unpredictable tables
+     */
+    private static final Long SEED = Long.getLong("seed");
+    /**
+     * number of tables each deck stream is played on in the duplicate mode, 0 if the mode is off
+     */
+    private static final int DUPLICATE = Integer.getInteger("duplicate", 0);
+    /**
+     * seconds to wait for the tables in flight when interrupted
+     */
+    private static final int SHUTDOWN_TIMEOUT = 10;
+    static final ConfigDTO CONFIG = new ConfigDTO(1000, 100, true, Integer.getInteger("move-timeout", 0));
 
     /**
      * Give the list of player classes as arguments.  Each class can be created with the default constructor or
      * constructor taking one string argument. The argument is specified after colon: {@code
-     * package.ClassName:argument}
+     * package.ClassName:argument}.  Instead of a player class, a {@link PlayerFactory} class can be given.
+     * <p/>
+     * Note that the execution is run in parallel.  Every table gets its own player instances (created with the
+     * constructor or by the factory), so the players don't have to be thread-safe, but any state they share (static
+     * fields, the factory itself) has to be stored in safe manner.
+     * <p/>
+     * The number of tables is specified through a system property {@code number-of-tables}.  The time limit for a
+     * single move in milliseconds can be set with {@code move-timeout}: a player missing it folds, and the one who
+     * misses it {@link Engine#MAX_TIMEOUTS} times is removed from the table.  The moves are made on at most {@code
+     * max-move-threads} threads (by default twice the tables in flight), which players ignoring the interrupt after the
+     * deadline keep until they return; with all of them taken, the tables asking for moves fail.
      * <p/>
-     * Note that the execution is run in parallel.  Players have to be thread-safe.  If some kind of state is required
-     * for the player, please make sure it's stored in safe manner.
+     * The tables are played by {@code workers} threads (by default as many as there are processors) with at most
+     * {@code max-tables-in-flight} tables (by default 4 per worker) existing at a time.  The progress is reported every
+     * {@code progress-interval} seconds (10 by default, 0 turns it off).  When interrupted (Ctrl-C) the tournament
+     * lets the tables in flight finish and prints the statistics of the tables played so far.
      * <p/>
-     * The number of tables is specified through a system property {@code number-of-tables}.  Example invocation:
+     * With {@code seed} set, the seat order and the cards of each table are derived from the seed and the number of
+     * the table only (see {@link RandomSource#splittable(long, int)}), whatever the number of workers and the order
+     * the tables are played in.  A single table can then be played again with {@code only-table} set to its number
+     * (counted from 0): with the same seed and players making the same decisions it's played the same way.
+     * <p/>
+     * With {@code duplicate} set to n, the tournament is played in the duplicate mode: every n consecutive tables are
+     * dealt the same stream of decks (see {@link ReplayableDealer}), each with the seats rotated by one more place, so
+     * the players get the cards the others had.  The results are then also given per stream of decks: the average
+     * share of its tables each player won with the standard error, which takes far fewer tables to tell the players
+     * apart than the totals, as much of the luck of the cards cancels out.  Setting n to the number of players gives
+     * every player every seat.  Without the seed, a random one is chosen and printed.
+     * <p/>
+     * With {@code stop-at-confidence} set (e.g. 0.95), the tournament stops starting new tables as soon as a {@link
+     * SequentialStop} names the best player with that confidence, or finds two players even.  The smallest advantage
+     * in winning a table worth telling two players apart is {@code stop-edge} (0.05 by default).  The intervals of the
+     * shares of tables won and the number of tables saved are printed at the end.  It cannot be combined with the
+     * duplicate mode, whose tables aren't independent.
+     * <p/>
+     * With {@code debug} set, all the events are printed.  Printing can be moved off the tables' threads with an
+     * {@link EventBus} of {@code event-bus-consumers} threads (0, the default, prints synchronously), with the wait
+     * strategy {@code event-bus-wait} ({@code BACK_OFF} by default), overflow policy {@code event-bus-overflow}
+     * ({@code BLOCK} by default) and channel capacity {@code event-bus-capacity} (1024 by default).
+     * <p/>
+     * With {@code hand-history} set to a directory, every hand is written there in the binary format of {@link
+     * HandHistoryWriter}, in segment files of up to {@code hand-history-segment-mb} megabytes (64 by default).  Example
+     * invocation:
      * <pre>
      * $ java -classpath poker-api.jar:poker-engine.jar:poker-player.jar \
      *      -D number-of-tables=100 poker.engine.Runner \
      *      poker.player.michal.RandomPlayer:David poker.player.michal.RandomPlayer:Michal/0/80
      *
      * Starting Texas Hold'em Tournament
-     * Configuration: ConfigDTO{maximumBet=100, initialChips=1000, reshuffleAfterGame=true}
+     * Configuration: ConfigDTO{maximumBet=100, initialChips=1000, reshuffleAfterGame=true, moveTimeout=0}
      * The games area going to be played on 1000 tables.
      * Players entering the competition: [poker.player.michal.RandomPlayer:A, poker.player.michal.RandomPlayer:B/0/80]
      *
+     * Played 1000/1000 tables in 2.4 s: 416.7 tables/s, 25552.9 hands/s
+     *
      * Games finished.  Overall statistics:
      *         D       256
      *         M/0/80  744
      * </pre>
      *
-     * The statistics show player names with the total number of tables closed with the player as a winner.
+     * The statistics show player names with the total number of tables closed with the player as a winner, then the
+     * rest of the {@link TournamentStatistics} by player and the number of tables by the hands played at them.  If any
+     * of the players missed move deadlines, the number of the missed deadlines follows.
      *
      * @see ThreadLocal
      * @see poker.player.michal.RandomPlayer
      */
     public static void main(String[] args) {
-        final int numberOfTables = Integer.getInteger("number-of-tables", 100);
+        final int onlyTable = Integer.getInteger("only-table", -1);
+        final int numberOfTables = onlyTable < 0? Integer.getInteger("number-of-tables", 100): 1;
+        final Long seed = SEED == null && DUPLICATE > 0? Long.valueOf(new SplittableRandom().nextLong()): SEED;
         System.out.println("Starting Texas Hold'em Tournament");
         System.out.println("Configuration: " + CONFIG);
+        if (DUPLICATE > 0) {
+            System.out.println("Duplicate: every deck stream is played on " + DUPLICATE + " tables with rotated seats");
+        }
+        if (seed != null) {
+            System.out.println("Seed: " + seed + (onlyTable < 0? "": ", table " + onlyTable + " only"));
+        } else if (onlyTable >= 0) {
+            System.out.println("\nTournament cancelled: a single table can be played again only with the seed given.");
+            return;
+        }
+        if (DUPLICATE > 0 && System.getProperty("stop-at-confidence") != null) {
+            // the tables of a deck stream are correlated, the test takes every table for an independent trial
+            System.out.println("\nTournament cancelled: stopping early cannot be combined with the duplicate mode.");
+            return;
+        }
         System.out.println("The games area going to be played on " + numberOfTables + " tables.");
         System.out.println("Players entering the competition: " + Arrays.toString(args));
 
-        final List<Player> players = Stream.of(args).map(Runner::initPlayer).filter(p -> p != null).collect(toList());
+        final List<PlayerFactory> players = Stream.of(args).map(Runner::initPlayer).filter(p -> p != null).collect(toList());
         if (players.size() < 2) {
             System.out.println("\nTournament cancelled: not enough players left standing.");
             return;
         }
 
-        final TableWinnerCounter twc = new TableWinnerCounter();
-        Stream.generate(() -> createEngine(players, twc)).limit(numberOfTables).parallel().forEach(Engine::run);
+        final TournamentStatistics statistics = new TournamentStatistics();
+        final TimeoutCounter timeouts = new TimeoutCounter();
+        final DuplicateCounter duplicates = DUPLICATE > 0? new DuplicateCounter(DUPLICATE): null;
+        final SequentialStop sequential = createSequentialStop();
+        final int workers = Integer.getInteger("workers", Runtime.getRuntime().availableProcessors());
+        final int maxInFlight = Integer.getInteger("max-tables-in-flight", 4 * workers);
+        final ThreadPoolExecutor moveExecutor = CONFIG.getMoveTimeout() > 0? createMoveExecutor(maxInFlight): null;
+        final EventBus events = DEBUG? createEventBus(): null;
+        final HandHistoryWriter history = createHandHistory();
+        final TournamentScheduler scheduler = new TournamentScheduler(workers, maxInFlight, index -> {
+            final int table = onlyTable < 0? index: onlyTable;
+            final Engine engine = createEngine(table, seed, players, statistics, moveExecutor, events);
+            if (duplicates != null) {
+                engine.registerObserver(duplicates.table(table / DUPLICATE));
+            }
+            if (sequential != null) {
+                engine.registerObserver(sequential);
+            }
+            if (history != null) {
+                engine.registerObserver(history.recorder(table));
+            }
+            if (moveExecutor != null) {
+                engine.registerObserver(new TableListener() {
+                    @Override
+                    public boolean isInterestedIn(final TableEvent.Type type) {
+                        return type == TableEvent.Type.TABLE_CLOSED;
+                    }
+
+                    @Override
+                    public void tableChanged(final TableEvent event) {
+                        timeouts.add(engine.getMoveTimeouts());
+                    }
+                });
+            }
+            return engine;
+        });
+
+        if (sequential != null) {
+            sequential.whenDecided(scheduler::stop);
+        }
+
+        final Thread interrupted = new Thread(() -> {
+            try {
+                if (scheduler.stop(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                    System.out.println("\nTournament interrupted after " + scheduler.progress(numberOfTables));
+                    printStatistics(statistics, timeouts, duplicates);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(interrupted);
+
+        scheduler.play(numberOfTables, Integer.getInteger("progress-interval", 10));
+        if (moveExecutor != null) {
+            moveExecutor.shutdownNow();
+            try {
+                if (!moveExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    System.out.println("\n" + moveExecutor.getActiveCount()
+                            + " moves past their deadline are still running: their players ignore interrupts");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (events != null) {
+            try {
+                events.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (history != null) {
+            try {
+                history.close();
+                System.out.println("\nHand history: " + history.getHands() + " hands in " + history.getBytes() + " bytes");
+            } catch (IOException e) {
+                System.out.println("\nHand history incomplete: " + e);
+            }
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(interrupted);
+        } catch (IllegalStateException e) {
+            return; // shutting down already, the hook prints the statistics
+        }
+
+        System.out.println("\nPlayed " + scheduler.progress(numberOfTables));
+        printStatistics(statistics, timeouts, duplicates);
+        if (sequential != null) {
+            printSequentialStop(sequential, numberOfTables - scheduler.getTablesPlayed());
+        }
+    }
+
+    private static void printSequentialStop(final SequentialStop sequential, final long saved) {
+        if (sequential.getBest() != null) {
+            System.out.println("\nSequential test: " + sequential.getBest() + " is the best after "
+                    + sequential.getDecidedAfter() + " tables, " + saved + " tables saved");
+        } else if (sequential.isEven()) {
+            System.out.println("\nSequential test: the players are even after " + sequential.getDecidedAfter()
+                    + " tables, " + saved + " tables saved");
+        } else {
+            System.out.println("\nSequential test: no decision");
+        }
+        sequential.intervals().forEach((name, share) -> System.out.println(String.format("\t%s\t%.2f%% [%.2f%%, %.2f%%]",
+                name, 100 * share[0], 100 * share[1], 100 * share[2])));
+    }
 
+    /**
+     * @return sequential test configured with system properties or null if the tournament isn't to stop early
+     */
+    private static SequentialStop createSequentialStop() {
+        final String confidence = System.getProperty("stop-at-confidence");
+        if (confidence == null) {
+            return null;
+        }
+        return new SequentialStop(Double.parseDouble(confidence), Double.parseDouble(System.getProperty("stop-edge", "0.05")));
+    }
+
+    private static void printStatistics(final TournamentStatistics statistics, final TimeoutCounter timeouts,
+                                        final DuplicateCounter duplicates) {
         System.out.println("\nGames finished.  Overall statistics: ");
-        twc.statistics().entrySet().stream().sorted(comparingByValue())
+        statistics.get(TournamentStatistics.Metric.TABLES_WON).entrySet().stream().sorted(comparingByValue())
                 .forEach(entry -> System.out.println("\t" + entry.getKey() + "\t" + entry.getValue()));
+        final StringBuilder header = new StringBuilder("\nPer player:\n\tplayer");
+        for (final TournamentStatistics.Metric metric : TournamentStatistics.Metric.values()) {
+            header.append('\t').append(metric.name().toLowerCase().replace('_', ' '));
+        }
+        System.out.println(header);
+        statistics.statistics().forEach((name, metrics) -> System.out.println("\t" + name + "\t"
+                + Arrays.stream(metrics).mapToObj(Long::toString).collect(joining("\t"))));
+        final long[] hands = statistics.handsPerTable();
+        System.out.println("\nTables by hands played:");
+        for (int bucket = 0; bucket < hands.length; bucket++) {
+            if (hands[bucket] > 0) {
+                System.out.println("\t" + (1L << bucket) + "-" + ((1L << bucket + 1) - 1) + "\t" + hands[bucket]);
+            }
+        }
+        if (duplicates != null) {
+            System.out.println("\nShare of tables won per deck stream (" + duplicates.getDecks() + " streams): ");
+            duplicates.statistics().forEach((name, share) -> System.out.println(String.format("\t%s\t%.2f%% +- %.2f%%",
+                    name, 100 * share[0], 100 * share[1])));
+        }
+        if (!timeouts.statistics().isEmpty()) {
+            System.out.println("\nMoves timed out: ");
+            timeouts.statistics().entrySet().stream().sorted(comparingByValue())
+                    .forEach(entry -> System.out.println("\t" + entry.getKey() + "\t" + entry.getValue()));
+        }
+    }
+
+    /**
+     * @return event bus configured with system properties or null if events are to be delivered synchronously
+     */
+    private static EventBus createEventBus() {
+        final int consumers = Integer.getInteger("event-bus-consumers", 0);
+        if (consumers < 1) {
+            return null;
+        }
+        return new EventBus(consumers, Integer.getInteger("event-bus-capacity", 1024),
+                EventBus.WaitStrategy.valueOf(System.getProperty("event-bus-wait", "BACK_OFF")),
+                EventBus.Overflow.valueOf(System.getProperty("event-bus-overflow", "BLOCK")));
+    }
+
+    /**
+     * @return hand history writer configured with system properties or null if the history isn't to be written
+     */
+    private static HandHistoryWriter createHandHistory() {
+        final String directory = System.getProperty("hand-history");
+        if (directory == null) {
+            return null;
+        }
+        final Path path = Paths.get(directory);
+        try {
+            Files.createDirectories(path);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot create hand history directory " + directory, e);
+        }
+        return new HandHistoryWriter(path, Integer.getInteger("hand-history-segment-mb", 64) << 20);
+    }
+
+    /**
+     * Each table waits for one move at a time, so {@code maxInFlight} threads serve the moves on time; the threads above
+     * that (as many again by default, or the {@code max-move-threads} property in total) are left to the moves of the
+     * players which ignore the interrupt after missing their deadline and keep their threads until they return.  Once
+     * all the threads are taken, asking for a move is rejected, which fails its table instead of starting yet another
+     * thread.
+     */
+    private static ThreadPoolExecutor createMoveExecutor(final int maxInFlight) {
+        return new ThreadPoolExecutor(0, Integer.getInteger("max-move-threads", 2 * maxInFlight), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), Runner::daemon);
+    }
+
+    /**
+     * Players ignoring the deadline may never give their threads back, so they must not keep the JVM running.
+     */
+    private static Thread daemon(final Runnable runnable) {
+        final Thread rv = new Thread(runnable, "player-move");
+        rv.setDaemon(true);
+        return rv;
     }
 
-    private static Player initPlayer(final String name) {
+    /**
+     * @return factory creating the player for each table or null if the player is disqualified
+     */
+    private static PlayerFactory initPlayer(final String name) {
         final String[] arr = name.split(":", 2);
         try {
             final Class<?> clazz = Class.forName(arr[0]);
-            if (arr.length > 1) {
-                return (Player) clazz.getConstructor(String.class).newInstance(arr[1]);
-            } else {
-                return (Player) clazz.newInstance();
+            final Object instance = newInstance(clazz, arr);
+            if (instance instanceof PlayerFactory) {
+                return (PlayerFactory) instance;
+            } else if (!(instance instanceof Player)) {
+                System.out.println("Player " + name + " disqualified: not a player");
+                return null;
             }
-        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            return () -> {
+                try {
+                    return (Player) newInstance(clazz, arr);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Cannot create player " + name, e);
+                }
+            };
+        } catch (ReflectiveOperationException e) {
             System.out.println("Player " + name + " disqualified: " + e);
             return null;
         }
     }
 
-    private static Engine createEngine(final List<Player> players, final TableWinnerCounter twc) {
-        final List<Player> local = new ArrayList<>(players);
-        Collections.shuffle(local);
-        final Engine engine = new Engine(local, CONFIG);
+    private static Object newInstance(final Class<?> clazz, final String[] arr) throws ReflectiveOperationException {
+        if (arr.length > 1) {
+            return clazz.getConstructor(String.class).newInstance(arr[1]);
+        } else {
+            return clazz.newInstance();
+        }
+    }
+
+    /**
+     * @param seed seed of the tables or null for unpredictable ones
+     */
+    private static Engine createEngine(final int table, final Long seed, final List<PlayerFactory> players,
+                                       final TournamentStatistics statistics, final ExecutorService moveExecutor,
+                                       final EventBus events) {
+        // the tables playing the same deck stream share the source
+        final int leaf = DUPLICATE > 0? table / DUPLICATE: table;
+        final RandomSource rnd = seed != null? RandomSource.splittable(seed, leaf): RandomSource.splittable();
+        final List<Player> local = new ArrayList<>(players.size());
+        for (final PlayerFactory factory : players) {
+            local.add(factory.newPlayer());
+        }
+        shuffle(local, rnd.split());
+        if (DUPLICATE > 0) {
+            Collections.rotate(local, table % DUPLICATE);
+        }
+        final Engine engine = new Engine(local, CONFIG, rnd);
+        if (DUPLICATE > 0) {
+            engine.setDealer(new ReplayableDealer(rnd));
+        }
+        engine.setMoveExecutor(moveExecutor);
         if (DEBUG) {
-            engine.registerObserver((AllConsumingListener) System.out::println);
+            final AllConsumingListener printer = System.out::println;
+            if (events != null) {
+                events.channel(engine, printer);
+            } else {
+                engine.registerObserver(printer);
+            }
         }
-        engine.registerObserver(twc);
+        engine.registerObserver(statistics.table());
         return engine;
     }
+
+    private static <T> void shuffle(final List<T> list, final RandomSource rnd) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            Collections.swap(list, i, rnd.nextInt(i + 1));
+        }
+    }
+}
+
+/**
+ * Counts the tables won per deck stream in the duplicate mode.  A stream counts once all its tables are closed.
+ */
+class DuplicateCounter {
+    private final int tables;
+    private final ConcurrentMap<Integer, Deck> decks = new ConcurrentHashMap<>();
+    /**
+     * by player: sum of the shares won and sum of their squares
+     */
+    private final Map<String, double[]> shares = new HashMap<>();
+    private int finished;
+
+    /**
+     * @param tables number of tables each deck stream is played on
+     */
+    public DuplicateCounter(final int tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * @return listener for a table playing the deck stream
+     */
+    public TableListener table(final int deck) {
+        return new TableListener() {
+            @Override
+            public boolean isInterestedIn(final TableEvent.Type type) {
+                return type == TableEvent.Type.TABLE_CREATED || type == TableEvent.Type.TABLE_CLOSED;
+            }
+
+            @Override
+            public void tableChanged(final TableEvent event) {
+                final Deck stream = decks.computeIfAbsent(deck, d -> new Deck());
+                final boolean complete;
+                synchronized (stream) {
+                    if (event.getType() == TableEvent.Type.TABLE_CREATED) {
+                        for (final String name : event.getPlayers()) {
+                            stream.wins.putIfAbsent(name, 0);
+                        }
+                        return;
+                    }
+                    stream.wins.merge(event.getPlayers().get(0), 1, Integer::sum);
+                    complete = ++stream.closed == tables;
+                }
+                if (complete) {
+                    decks.remove(deck);
+                    add(stream);
+                }
+            }
+        };
+    }
+
+    private synchronized void add(final Deck stream) {
+        finished++;
+        for (final Map.Entry<String, Integer> entry : stream.wins.entrySet()) {
+            final double share = (double)entry.getValue() / tables;
+            final double[] sums = shares.computeIfAbsent(entry.getKey(), name -> new double[2]);
+            sums[0] += share;
+            sums[1] += share * share;
+        }
+    }
+
+    /**
+     * @return number of deck streams played on all their tables
+     */
+    public synchronized int getDecks() {
+        return finished;
+    }
+
+    /**
+     * @return by player: the mean share of a stream's tables won and its standard error
+     */
+    public synchronized Map<String, double[]> statistics() {
+        final Map<String, double[]> rv = new TreeMap<>();
+        for (final Map.Entry<String, double[]> entry : shares.entrySet()) {
+            final double mean = entry.getValue()[0] / finished;
+            final double variance = finished > 1? (entry.getValue()[1] - finished * mean * mean) / (finished - 1): 0;
+            rv.put(entry.getKey(), new double[] {mean, Math.sqrt(Math.max(variance, 0) / finished)});
+        }
+        return rv;
+    }
+
+    private static class Deck {
+        private final Map<String, Integer> wins = new HashMap<>();
+        private int closed;
+    }
 }
 
-class TableWinnerCounter implements TableListener {
-    private final ConcurrentMap<String, AtomicInteger> winners = new ConcurrentHashMap<>();
+class TimeoutCounter {
+    private final ConcurrentMap<String, AtomicInteger> timeouts = new ConcurrentHashMap<>();
 
-    @Override
-    public void tableChanged(final TableEvent event) {
-        if (event.getType() == TableEvent.Type.TABLE_CLOSED) {
-            winners.computeIfAbsent(event.getPlayers().get(0), s -> new AtomicInteger()).incrementAndGet();
+    public void add(final Map<String, Integer> table) {
+        for (Map.Entry<String, Integer> entry : table.entrySet()) {
+            timeouts.computeIfAbsent(entry.getKey(), s -> new AtomicInteger()).addAndGet(entry.getValue());
         }
     }
 
     public Map<String, Integer> statistics() {
         final Map<String, Integer> rv = new HashMap<>();
-        for (Map.Entry<String, AtomicInteger> entry : winners.entrySet()) {
+        for (Map.Entry<String, AtomicInteger> entry : timeouts.entrySet()) {
             rv.put(entry.getKey(), entry.getValue().get());
         }
         return rv;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,276 @@
+/*
+ * @(#) SeatPot.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+/**
+ * A mutable representation of the table's pot keyed by seat index.
+ * <p/>
+ * Contributions are kept in a plain {@code int[]}, and the maximum contribution together with the number of players
+ * who have matched it are maintained as the chips come in, so all the queries made during a round of betting are
+ * constant time and allocation-free.  Only removing the (only) player holding the maximum contribution requires
+ * rescanning the seats.
+ * <p/>
+ * A seat joins the game with its first contribution after {@link #clear()}.  Seats which went {@link #allIn(int) all
+ * in} stay in the game (and in the pot) but are no longer expected to match the maximum contribution.  Chips of
+ * removed seats stay in the pot and are won by whoever wins the layer they were paid into (see {@link #divide(int[],
+ * int)}).  The pot is owned by a single table and is not thread-safe.
+ *
+ * @version created on 2014-06-12, 21:10
+ */
+class SeatPot {
+    private static final byte OUT = 0;
+    private static final byte IN = 1;
+    private static final byte ALL_IN = 2;
+    private static final byte REMOVED = 3;
+
+    private final int[] contributions;
+    private final byte[] states;
+    /**
+     * scratch array for sorting seats in {@link #divide(int[], int)}
+     */
+    private final int[] order;
+
+    private int total;
+    private int max;
+    /**
+     * number of seats in the game (betting or all in) with contribution equal to {@link #max}
+     */
+    private int atMax;
+    /**
+     * number of seats still betting
+     */
+    private int betting;
+    /**
+     * number of seats still betting with contribution equal to {@link #max}
+     */
+    private int bettingAtMax;
+
+    public SeatPot(final int seats) {
+        contributions = new int[seats];
+        states = new byte[seats];
+        order = new int[seats];
+    }
+
+    public int playersContribution(final int seat) {
+        return states[seat] == IN || states[seat] == ALL_IN? contributions[seat]: 0;
+    }
+
+    public int maxContribution() {
+        return max;
+    }
+
+    public int total() {
+        return total;
+    }
+
+    public void clear() {
+        for (int i = 0; i < contributions.length; i++) {
+            contributions[i] = 0;
+            states[i] = OUT;
+        }
+        total = 0;
+        max = 0;
+        atMax = 0;
+        betting = 0;
+        bettingAtMax = 0;
+    }
+
+    public void add(final int seat, final int chips) {
+        if (states[seat] == OUT) {
+            states[seat] = IN;
+            betting++;
+            if (max == 0) {
+                atMax++;
+                bettingAtMax++;
+            }
+        }
+        total += chips;
+        if (states[seat] == REMOVED || chips == 0) {
+            return;
+        }
+
+        final int now = contributions[seat] + chips;
+        contributions[seat] = now;
+        final int isBetting = states[seat] == IN? 1: 0;
+        if (now > max) {
+            max = now;
+            atMax = 1;
+            bettingAtMax = isBetting;
+        } else if (now == max) {
+            atMax++;
+            bettingAtMax += isBetting;
+        }
+    }
+
+    /**
+     * Marks the seat as all in: it stays in the game, but doesn't bet any more.
+     */
+    public void allIn(final int seat) {
+        if (states[seat] != IN) {
+            return;
+        }
+        states[seat] = ALL_IN;
+        betting--;
+        if (contributions[seat] == max) {
+            bettingAtMax--;
+        }
+    }
+
+    public boolean isAllIn(final int seat) {
+        return states[seat] == ALL_IN;
+    }
+
+    public void removePlayer(final int seat) {
+        final byte state = states[seat];
+        if (state != IN && state != ALL_IN) {
+            return;
+        }
+        states[seat] = REMOVED;
+        if (state == IN) {
+            betting--;
+        }
+        if (contributions[seat] == max) {
+            if (state == IN) {
+                bettingAtMax--;
+            }
+            if (--atMax == 0) {
+                rescan();
+            }
+        }
+    }
+
+    /**
+     * @return true if all the seats still betting contributed the same
+     */
+    public boolean equalised() {
+        return betting == bettingAtMax;
+    }
+
+    /**
+     * @return number of seats still betting (in the game, but not all in)
+     */
+    public int betting() {
+        return betting;
+    }
+
+    /**
+     * Divides the pot into layers: the main pot and side pots capped by the contributions of the players who went
+     * all in.  Each layer is won by the best hand among the seats which contributed to it fully; chips which cannot
+     * be split equally between the winners of a layer are given one by one to the winners in seat order starting
+     * from {@code firstSeat}.
+     * <p/>
+     * The layers are resolved in a single sweep over the seats sorted by contribution.
+     *
+     * @param ranks     strength of the hand (the greater the better) for each seat still in the game
+     * @param firstSeat the seat to receive the first odd chip (usually the first one after the dealer)
+     *
+     * @return winnings by seat
+     */
+    public int[] divide(final int[] ranks, final int firstSeat) {
+        final int[] rv = new int[contributions.length];
+
+        int count = 0;
+        for (int seat = 0; seat < contributions.length; seat++) {
+            if (states[seat] != OUT) {
+                // insertion sort by contribution, there are at most a few dozens of seats
+                int i = count++;
+                while (i > 0 && contributions[order[i - 1]] > contributions[seat]) {
+                    order[i] = order[i - 1];
+                    i--;
+                }
+                order[i] = seat;
+            }
+        }
+
+        int level = 0;
+        int layer = 0;
+        int top = count;
+        for (int i = 0; i < count; i++) {
+            final int seat = order[i];
+            final int contribution = contributions[seat];
+            // all the seats from i on contributed at least up to this level
+            layer += (contribution - level) * (count - i);
+            level = contribution;
+
+            if (inGame(seat)) {
+                if (contribution < max) {
+                    if (layer > 0) {
+                        award(rv, layer, bestHands(ranks, i, count), firstSeat);
+                        layer = 0;
+                    }
+                } else if (top == count) {
+                    top = i;
+                }
+            }
+        }
+        if (top < count && layer > 0) {
+            // the top layer, together with whatever the removed seats paid above it
+            award(rv, layer, bestHands(ranks, top, count), firstSeat);
+        }
+        return rv;
+    }
+
+    private boolean inGame(final int seat) {
+        return states[seat] == IN || states[seat] == ALL_IN;
+    }
+
+    /**
+     * @return bit mask of the seats in the game (among {@code order[from..to)}) holding the best hand
+     */
+    private int bestHands(final int[] ranks, final int from, final int to) {
+        int best = Integer.MIN_VALUE;
+        int rv = 0;
+        for (int i = from; i < to; i++) {
+            final int seat = order[i];
+            if (!inGame(seat)) {
+                continue;
+            }
+            if (ranks[seat] > best) {
+                best = ranks[seat];
+                rv = 1 << seat;
+            } else if (ranks[seat] == best) {
+                rv |= 1 << seat;
+            }
+        }
+        return rv;
+    }
+
+    private void award(final int[] winnings, final int chips, final int winners, final int firstSeat) {
+        final int share = chips / Integer.bitCount(winners);
+        int odd = chips - share * Integer.bitCount(winners);
+        for (int i = 0; i < contributions.length; i++) {
+            final int seat = (firstSeat + i) % contributions.length;
+            if ((winners & 1 << seat) != 0) {
+                winnings[seat] += share;
+                if (odd > 0) {
+                    winnings[seat]++;
+                    odd--;
+                }
+            }
+        }
+    }
+
+    private void rescan() {
+        max = 0;
+        atMax = 0;
+        bettingAtMax = 0;
+        for (int seat = 0; seat < contributions.length; seat++) {
+            if (inGame(seat)) {
+                final int contribution = contributions[seat];
+                final int isBetting = states[seat] == IN? 1: 0;
+                if (contribution > max) {
+                    max = contribution;
+                    atMax = 1;
+                    bettingAtMax = isBetting;
+                } else if (contribution == max) {
+                    atMax++;
+                    bettingAtMax += isBetting;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * @(#) SecureRandomSource.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import java.security.SecureRandom;
+
+/**
+ * Cryptographically strong (and slow) random source for the games in which the dealt cards have to be audited.
+ *
+ * @version created on 2014-06-09, 19:50
+ */
+class SecureRandomSource implements RandomSource {
+    private final SecureRandom rnd;
+
+    public SecureRandomSource(final byte[] seed) {
+        rnd = new SecureRandom(seed);
+    }
+
+    public SecureRandomSource() {
+        rnd = new SecureRandom();
+    }
+
+    @Override
+    public long nextLong() {
+        return rnd.nextLong();
+    }
+
+    @Override
+    public int nextInt(final int bound) {
+        return rnd.nextInt(bound);
+    }
+
+    @Override
+    public RandomSource split() {
+        return new SecureRandomSource();
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * @(#) SequentialStop.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import poker.TableEvent;
+import poker.TableListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Watches the table winners as the tables close and decides as soon as the results tell which player is the best
+ * with the given confidence, so the tournament can stop playing tables that wouldn't change the verdict.
+ * <p/>
+ * With two players it's the three-decision procedure of Sobel and Wald: two sequential probability ratio tests, one
+ * for each player, of "the player wins a table with probability 1/2" against "... 1/2 + edge", with both error
+ * probabilities {@code 1 - confidence}.  It decides that a player is the best once his test accepts the edge, or that
+ * the players are {@link #isEven() even} (closer than the edge) once both tests reject it.  Players whose difference
+ * is close to the edge take the longest, so the number of tables should still be bounded.
+ * <p/>
+ * With more players, the shares of tables won are checked after {@value #FIRST_LOOK} tables and then every time the
+ * number of tables doubles.  The j-th look uses the Wilson intervals of all the players at the level {@code (1 -
+ * confidence) / 2^j} divided between the players (Bonferroni), so the looks together keep the error below {@code 1 -
+ * confidence}.  It decides when the lower bound of the leader is above the upper bounds of all the others.
+ * <p/>
+ * Every table is taken for an independent trial, so the tables mustn't share their cards, as in the duplicate mode
+ * of {@link Runner}.
+ * <p/>
+ * Thread-safe: one instance is registered with every table.
+ *
+ * @version created on 2014-07-15, 20:20
+ */
+class SequentialStop implements TableListener {
+    static final int FIRST_LOOK = 100;
+
+    private final double confidence;
+    private final double edge;
+    private final Map<String, Integer> wins = new LinkedHashMap<>();
+
+    private int tables;
+    private int nextLook = FIRST_LOOK;
+    private int looks;
+    private String best;
+    private boolean even;
+    private int decidedAfter;
+    private Runnable whenDecided = () -> {
+    };
+
+    /**
+     * @param confidence probability of not naming a wrong player the best, e.g. 0.95
+     * @param edge       for two players: the smallest advantage in the probability of winning a table worth telling
+     *                   apart, e.g. 0.05 for 55% against 45%
+     */
+    public SequentialStop(final double confidence, final double edge) {
+        if (confidence <= 0.5 || confidence >= 1 || edge <= 0 || edge >= 0.5) {
+            throw new IllegalArgumentException("Confidence has to be in (0.5, 1) and edge in (0, 0.5)");
+        }
+        this.confidence = confidence;
+        this.edge = edge;
+    }
+
+    /**
+     * @param action run once, by the thread closing the table which decides the test
+     */
+    public synchronized void whenDecided(final Runnable action) {
+        whenDecided = action;
+    }
+
+    @Override
+    public boolean isInterestedIn(final TableEvent.Type type) {
+        return type == TableEvent.Type.TABLE_CREATED || type == TableEvent.Type.TABLE_CLOSED;
+    }
+
+    @Override
+    public void tableChanged(final TableEvent event) {
+        final Runnable action;
+        synchronized (this) {
+            if (event.getType() == TableEvent.Type.TABLE_CREATED) {
+                for (final String name : event.getPlayers()) {
+                    wins.putIfAbsent(name, 0);
+                }
+                return;
+            }
+            wins.merge(event.getPlayers().get(0), 1, Integer::sum);
+            tables++;
+            // tables in flight still count for the intervals, but the verdict is given once
+            if (best != null || even || !decide()) {
+                return;
+            }
+            decidedAfter = tables;
+            action = whenDecided;
+        }
+        action.run();
+    }
+
+    private boolean decide() {
+        if (wins.size() == 2) {
+            final List<Map.Entry<String, Integer>> players = new ArrayList<>(wins.entrySet());
+            final int first = players.get(0).getValue();
+            final int second = players.get(1).getValue();
+            final double bound = Math.log(confidence / (1 - confidence));
+            final double firstBetter = logLikelihoodRatio(first, second);
+            final double secondBetter = logLikelihoodRatio(second, first);
+            if (firstBetter >= bound) {
+                best = players.get(0).getKey();
+            } else if (secondBetter >= bound) {
+                best = players.get(1).getKey();
+            } else {
+                even = firstBetter <= -bound && secondBetter <= -bound;
+            }
+            return best != null || even;
+        } else if (wins.size() > 2 && tables == nextLook) {
+            nextLook *= 2;
+            final double z = z((1 - confidence) / (1L << ++looks) / wins.size());
+            best = leader(z);
+        }
+        return best != null;
+    }
+
+    /**
+     * @return log of the ratio of the likelihoods of "the player wins with probability 1/2 + edge" and "... 1/2"
+     */
+    private double logLikelihoodRatio(final int won, final int lost) {
+        return won * Math.log(1 + 2 * edge) + lost * Math.log(1 - 2 * edge);
+    }
+
+    /**
+     * @return the player whose interval is above everybody else's or null
+     */
+    private String leader(final double z) {
+        String leader = null;
+        int most = -1;
+        for (final Map.Entry<String, Integer> entry : wins.entrySet()) {
+            if (entry.getValue() > most) {
+                leader = entry.getKey();
+                most = entry.getValue();
+            }
+        }
+        final double lower = wilson(most, z)[0];
+        for (final Map.Entry<String, Integer> entry : wins.entrySet()) {
+            if (!entry.getKey().equals(leader) && wilson(entry.getValue(), z)[1] >= lower) {
+                return null;
+            }
+        }
+        return leader;
+    }
+
+    /**
+     * @return lower and upper bound of the Wilson interval of the share of tables won
+     */
+    private double[] wilson(final int won, final double z) {
+        final double n = tables;
+        final double p = won / n;
+        final double z2 = z * z;
+        final double center = (p + z2 / (2 * n)) / (1 + z2 / n);
+        final double half = z * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n)) / (1 + z2 / n);
+        return new double[] {Math.max(center - half, 0), Math.min(center + half, 1)};
+    }
+
+    /**
+     * @return the best player or null if the test hasn't decided yet
+     */
+    public synchronized String getBest() {
+        return best;
+    }
+
+    /**
+     * @return true if the test decided that neither of two players is better by the edge
+     */
+    public synchronized boolean isEven() {
+        return even;
+    }
+
+    /**
+     * @return number of tables after which the test decided, 0 if it hasn't
+     */
+    public synchronized int getDecidedAfter() {
+        return decidedAfter;
+    }
+
+    /**
+     * @return by player: the share of tables won with the bounds of its interval at the test's confidence (divided
+     * between the players when there are more than two)
+     */
+    public synchronized Map<String, double[]> intervals() {
+        final Map<String, double[]> rv = new LinkedHashMap<>();
+        if (tables == 0) {
+            return rv;
+        }
+        final double z = z((1 - confidence) / (wins.size() > 2? wins.size(): 1));
+        for (final Map.Entry<String, Integer> entry : wins.entrySet()) {
+            final double[] bounds = wilson(entry.getValue(), z);
+            rv.put(entry.getKey(), new double[] {(double)entry.getValue() / tables, bounds[0], bounds[1]});
+        }
+        return rv;
+    }
+
+    /**
+     * @return z such that a standard normal variable is out of (-z, z) with probability {@code alpha}
+     */
+    static double z(final double alpha) {
+        return quantile(1 - alpha / 2);
+    }
+
+    /**
+     * Quantile of the standard normal distribution (Acklam's rational approximation, relative error below 1.2e-9).
+     */
+    static double quantile(final double p) {
+        final double low = 0.02425;
+        if (p < low) {
+            final double q = Math.sqrt(-2 * Math.log(p));
+            return (((((-7.784894002430293e-03 * q - 3.223964580411365e-01) * q - 2.400758277161838e+00) * q
+                    - 2.549732539343734e+00) * q + 4.374664141464968e+00) * q + 2.938163982698783e+00)
+                    / ((((7.784695709041462e-03 * q + 3.224671290700398e-01) * q + 2.445134137142996e+00) * q
+                    + 3.754408661907416e+00) * q + 1);
+        } else if (p > 1 - low) {
+            return -quantile(1 - p);
+        }
+        final double q = p - 0.5;
+        final double r = q * q;
+        return (((((-3.969683028665376e+01 * r + 2.209460984245205e+02) * r - 2.759285104469687e+02) * r
+                + 1.383577518672690e+02) * r - 3.066479806614716e+01) * r + 2.506628277459239e+00) * q
+                / (((((-5.447609879822406e+01 * r + 1.615858368580409e+02) * r - 1.556989798598866e+02) * r
+                + 6.680131188771972e+01) * r - 1.328068155288572e+01) * r + 1);
+    }
+}
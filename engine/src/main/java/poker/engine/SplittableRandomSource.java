@@ -0,0 +1,60 @@
+/*
+ * @(#) SplittableRandomSource.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Simulation grade random source backed by {@link SplittableRandom}.
+ *
+ * @version created on 2014-06-09, 19:55
+ */
+class SplittableRandomSource implements RandomSource {
+    private final SplittableRandom rnd;
+
+    private SplittableRandomSource(final SplittableRandom rnd) {
+        this.rnd = rnd;
+    }
+
+    public SplittableRandomSource(final long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    public SplittableRandomSource() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Walks the split tree of depth 32 from the root seeded with {@code seed} along the bits of {@code index}: at each
+     * level the split is the left child and the parent, moved on by the split, is the right one.
+     */
+    static SplittableRandomSource leaf(final long seed, final int index) {
+        SplittableRandom node = new SplittableRandom(seed);
+        for (int bit = Integer.SIZE - 1; bit >= 0; bit--) {
+            final SplittableRandom left = node.split();
+            if ((index >>> bit & 1) == 0) {
+                node = left;
+            }
+        }
+        return new SplittableRandomSource(node);
+    }
+
+    @Override
+    public long nextLong() {
+        return rnd.nextLong();
+    }
+
+    @Override
+    public int nextInt(final int bound) {
+        return rnd.nextInt(bound);
+    }
+
+    @Override
+    public RandomSource split() {
+        return new SplittableRandomSource(rnd.split());
+    }
+}
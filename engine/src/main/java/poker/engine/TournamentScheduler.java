@@ -0,0 +1,168 @@
+/*
+ * @(#) TournamentScheduler.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Plays the tables of a tournament on a pool of worker threads.
+ * <p/>
+ * Each table is a separate task, created and run on the worker which picks it up; idle workers steal tasks from the
+ * busy ones.  No more than {@code maxInFlight} tables exist at a time, which bounds the memory taken by the
+ * tournament no matter how many tables it plays.  The progress (tables and hands per second) can be reported
+ * periodically, and the tournament can be {@link #stop(long, TimeUnit) stopped} from another thread, e.g. a shutdown
+ * hook, letting the tables in flight finish.
+ *
+ * @version created on 2014-06-22, 18:30
+ */
+class TournamentScheduler {
+    private final int workers;
+    private final int maxInFlight;
+    private final IntFunction<Engine> tables;
+
+    private final LongAdder tablesPlayed = new LongAdder();
+    private final LongAdder handsPlayed = new LongAdder();
+    private final LongAdder tablesFailed = new LongAdder();
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private volatile boolean stopped;
+    private volatile long started;
+
+    /**
+     * @param workers     number of worker threads
+     * @param maxInFlight maximum number of tables played (or waiting to be played) at a time
+     * @param tables      creates the table with the given index
+     */
+    public TournamentScheduler(final int workers, final int maxInFlight, final IntFunction<Engine> tables) {
+        if (workers < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("At least one worker and one table in flight are required");
+        }
+        this.workers = workers;
+        this.maxInFlight = maxInFlight;
+        this.tables = tables;
+    }
+
+    /**
+     * Plays the tables, blocking until all of them are finished or the tournament is stopped.  Can be called only once.
+     *
+     * @param numberOfTables   number of tables to play
+     * @param progressInterval seconds between the progress reports, 0 or less for no reports
+     *
+     * @return true if all the tables were played
+     */
+    public boolean play(final int numberOfTables, final int progressInterval) {
+        final ForkJoinPool pool = new ForkJoinPool(workers);
+        final Semaphore inFlight = new Semaphore(maxInFlight);
+        final ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread rv = new Thread(r, "tournament-progress");
+            rv.setDaemon(true);
+            return rv;
+        });
+        started = System.nanoTime();
+        if (progressInterval > 0) {
+            progress.scheduleAtFixedRate(() -> System.out.println(progress(numberOfTables)), progressInterval,
+                    progressInterval, TimeUnit.SECONDS);
+        }
+
+        try {
+            for (int i = 0; i < numberOfTables && !stopped; i++) {
+                inFlight.acquire();
+                if (stopped) {
+                    // stopped while waiting for a table to finish
+                    inFlight.release();
+                    break;
+                }
+                final int index = i;
+                pool.execute(() -> {
+                    try {
+                        playTable(index);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            // wait for the tables in flight
+            inFlight.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            stopped = true;
+            Thread.currentThread().interrupt();
+        } finally {
+            progress.shutdownNow();
+            pool.shutdown();
+            finished.countDown();
+        }
+        return tablesPlayed.sum() == numberOfTables;
+    }
+
+    private void playTable(final int index) {
+        try {
+            final Engine engine = tables.apply(index);
+            engine.run();
+            handsPlayed.add(engine.getGamesPlayed());
+            tablesPlayed.increment();
+        } catch (RuntimeException e) {
+            tablesFailed.increment();
+            System.out.println("Table " + index + " failed: " + e);
+            if (Thread.currentThread().isInterrupted()) {
+                // an interrupted worker would fail every table it takes next
+                stop();
+            }
+        }
+    }
+
+    /**
+     * Stops starting new tables and waits for the ones in flight to finish.
+     *
+     * @return true if the tournament was in progress when stopped
+     */
+    public boolean stop(final long timeout, final TimeUnit unit) throws InterruptedException {
+        if (finished.getCount() == 0) {
+            return false;
+        }
+        stop();
+        finished.await(timeout, unit);
+        return true;
+    }
+
+    /**
+     * Stops starting new tables without waiting, so it can be called by a table's thread; {@link #play(int, int)}
+     * returns once the tables in flight are finished.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    public long getTablesPlayed() {
+        return tablesPlayed.sum();
+    }
+
+    public long getHandsPlayed() {
+        return handsPlayed.sum();
+    }
+
+    public long getTablesFailed() {
+        return tablesFailed.sum();
+    }
+
+    /**
+     * @return the number of tables played with the rates of tables and hands per second
+     */
+    public String progress(final int numberOfTables) {
+        final double seconds = Math.max(System.nanoTime() - started, 1) / 1e9;
+        final long tablesPlayed = getTablesPlayed();
+        final long handsPlayed = getHandsPlayed();
+        return String.format("%d/%d tables in %.1f s: %.1f tables/s, %.1f hands/s", tablesPlayed, numberOfTables,
+                seconds, tablesPlayed / seconds, handsPlayed / seconds);
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * @(#) TournamentStatistics.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import poker.CardDTO;
+import poker.MoveDTO;
+import poker.TableEvent;
+import poker.TableListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics of a tournament by player, collected without contention between the tables' threads: every table counts
+ * into its own arrays and adds them, when it's closed, into the shard of the thread closing it.  A shard is written by
+ * its thread only, so adding is a plain read and an ordered write, like a cell of a {@link
+ * java.util.concurrent.atomic.LongAdder} nobody else touches; the shards are summed when the statistics are read.
+ * Nothing is allocated per hand.
+ * <p/>
+ * Register {@link #table()} with every table.  The statistics read while the tournament is played cover the tables
+ * closed so far.
+ *
+ * @version created on 2014-07-18, 19:10
+ */
+class TournamentStatistics {
+    enum Metric {
+        TABLES_WON,
+        /**
+         * hands the player was dealt cards in
+         */
+        HANDS_PLAYED,
+        HANDS_WON,
+        /**
+         * hands the player was still in when more than one was left at the end
+         */
+        SHOWDOWNS,
+        /**
+         * folds, including the moves timed out
+         */
+        FOLDS,
+        RAISES,
+        /**
+         * chips won in the hands the player won more than he put into the pot
+         */
+        CHIPS_WON,
+        /**
+         * chips lost in the hands the player put more into the pot than he won
+         */
+        CHIPS_LOST,
+        /**
+         * removals from the table: for the lack of chips, illegal moves or too many timeouts
+         */
+        ELIMINATIONS;
+
+        private static final Metric[] VALUES = values();
+    }
+
+    /**
+     * buckets of the histogram of hands played at a table: i for 2^i to 2^(i+1) - 1 hands; a table is closed at the end
+     * of a hand, so it has played one at least
+     */
+    static final int BUCKETS = Integer.SIZE - 1;
+
+    private static final int METRICS = Metric.VALUES.length;
+
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> names = new CopyOnWriteArrayList<>();
+    private final List<Shard> shards = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Shard> shard = ThreadLocal.withInitial(() -> {
+        final Shard rv = new Shard();
+        shards.add(rv);
+        return rv;
+    });
+
+    /**
+     * @return observer of a table, to be registered with it and no other
+     */
+    public Table table() {
+        return new Table();
+    }
+
+    private int id(final String name) {
+        final Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (names) {
+            return ids.computeIfAbsent(name, n -> {
+                names.add(n);
+                return names.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * @return by player: the metrics indexed by their ordinals
+     */
+    public Map<String, long[]> statistics() {
+        final List<String> players = new ArrayList<>(names);
+        final long[] sums = new long[players.size() * METRICS];
+        for (final Shard s : shards) {
+            final AtomicLongArray counters = s.counters;
+            for (int i = 0; i < Math.min(sums.length, counters.length()); i++) {
+                sums[i] += counters.get(i);
+            }
+        }
+        final Map<String, long[]> rv = new LinkedHashMap<>();
+        for (int id = 0; id < players.size(); id++) {
+            rv.put(players.get(id), Arrays.copyOfRange(sums, id * METRICS, (id + 1) * METRICS));
+        }
+        return rv;
+    }
+
+    /**
+     * @return by player: the metric
+     */
+    public Map<String, Long> get(final Metric metric) {
+        final Map<String, Long> rv = new LinkedHashMap<>();
+        statistics().forEach((name, metrics) -> rv.put(name, metrics[metric.ordinal()]));
+        return rv;
+    }
+
+    /**
+     * @return number of the tables closed by the number of hands played at them, in the {@link #BUCKETS buckets}
+     */
+    public long[] handsPerTable() {
+        final long[] rv = new long[BUCKETS];
+        for (final Shard s : shards) {
+            for (int i = 0; i < BUCKETS; i++) {
+                rv[i] += s.histogram.get(i);
+            }
+        }
+        return rv;
+    }
+
+    /**
+     * @param hands number of hands played at a table, positive
+     *
+     * @return the bucket of the histogram of hands played at a table
+     */
+    static int bucket(final int hands) {
+        return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(hands);
+    }
+
+    /**
+     * Counters of a thread, written only by it.
+     */
+    private static class Shard {
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+        private volatile AtomicLongArray counters = new AtomicLongArray(0);
+
+        private void add(final long[] metrics, final int[] players, final int hands) {
+            AtomicLongArray rv = counters;
+            int needed = 0;
+            for (final int id : players) {
+                needed = Math.max(needed, (id + 1) * METRICS);
+            }
+            if (needed > rv.length()) {
+                final AtomicLongArray grown = new AtomicLongArray(Math.max(needed, 2 * rv.length()));
+                for (int i = 0; i < rv.length(); i++) {
+                    grown.lazySet(i, rv.get(i));
+                }
+                counters = rv = grown;
+            }
+            for (int seat = 0; seat < players.length; seat++) {
+                for (int metric = 0; metric < METRICS; metric++) {
+                    final int i = players[seat] * METRICS + metric;
+                    rv.lazySet(i, rv.get(i) + metrics[seat * METRICS + metric]);
+                }
+            }
+            final int bucket = bucket(hands);
+            histogram.lazySet(bucket, histogram.get(bucket) + 1);
+        }
+    }
+
+    /**
+     * Counts the hands of a table, by seat, and adds them up when the table is closed.
+     */
+    class Table implements HandObserver, TableListener {
+        private int[] players;
+        private long[] metrics;
+        private boolean[] out;
+        private int[] paid;
+        private int hands;
+
+        private Table() {
+        }
+
+        private void count(final int seat, final Metric metric, final long value) {
+            metrics[seat * METRICS + metric.ordinal()] += value;
+        }
+
+        @Override
+        public void handStarted(final int hand, final List<PlayerState> seated) {
+            if (players == null) {
+                // the first hand has everybody seated
+                players = new int[seated.size()];
+                for (final PlayerState player : seated) {
+                    players[player.getSeat()] = id(player.getPlayer().name());
+                }
+                metrics = new long[players.length * METRICS];
+                out = new boolean[players.length];
+                paid = new int[players.length];
+            }
+            Arrays.fill(out, true);
+            Arrays.fill(paid, 0);
+            for (final PlayerState player : seated) {
+                out[player.getSeat()] = false;
+            }
+            hands++;
+        }
+
+        @Override
+        public void forcedBet(final int seat, final int chips) {
+            paid[seat] += chips;
+        }
+
+        @Override
+        public void privateCards(final int seat, final CardDTO first, final CardDTO second) {
+            count(seat, Metric.HANDS_PLAYED, 1);
+        }
+
+        @Override
+        public void communityCard(final CardDTO card) {
+        }
+
+        @Override
+        public void moveMade(final int seat, final MoveDTO move, final int chips) {
+            paid[seat] += chips;
+            if (move.getType() == MoveDTO.MoveType.FOLD) {
+                out[seat] = true;
+                count(seat, Metric.FOLDS, 1);
+            } else if (move.getType() == MoveDTO.MoveType.RAISE) {
+                count(seat, Metric.RAISES, 1);
+            }
+        }
+
+        @Override
+        public void moveTimedOut(final int seat) {
+            // folded, or removed and reported so
+            out[seat] = true;
+            count(seat, Metric.FOLDS, 1);
+        }
+
+        @Override
+        public void playerRemoved(final int seat) {
+            out[seat] = true;
+            count(seat, Metric.ELIMINATIONS, 1);
+        }
+
+        @Override
+        public void handFinished(final int[] winnings) {
+            int left = 0;
+            for (final boolean folded : out) {
+                left += folded? 0: 1;
+            }
+            for (int seat = 0; seat < players.length; seat++) {
+                if (left > 1 && !out[seat]) {
+                    count(seat, Metric.SHOWDOWNS, 1);
+                }
+                if (winnings[seat] > 0) {
+                    count(seat, Metric.HANDS_WON, 1);
+                }
+                final int net = winnings[seat] - paid[seat];
+                count(seat, net > 0? Metric.CHIPS_WON: Metric.CHIPS_LOST, Math.abs(net));
+            }
+        }
+
+        @Override
+        public boolean isInterestedIn(final TableEvent.Type type) {
+            return type == TableEvent.Type.TABLE_CLOSED;
+        }
+
+        @Override
+        public void tableChanged(final TableEvent event) {
+            if (players == null) {
+                // registered after the table had played: nothing counted to add
+                return;
+            }
+            final String winner = event.getPlayers().get(0);
+            for (int seat = 0; seat < players.length; seat++) {
+                if (names.get(players[seat]).equals(winner)) {
+                    count(seat, Metric.TABLES_WON, 1);
+                }
+            }
+            shard.get().add(metrics, players, hands);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * @(#) ArrayDealerTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import poker.CardDTO;
+import poker.CardSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ArrayDealerTest {
+    public static final int MAX_TRIES = 100000;
+
+    @Test
+    public void testFullDeckDealt() throws Exception {
+        final Dealer dealer = new ArrayDealer(1);
+        for (int i = 0; i < 100; i++) {
+            CardSet dealt = CardSet.EMPTY;
+            for (int j = 0; j < 52; j++) {
+                dealt = dealt.with(dealer.deal());
+            }
+            Assert.assertEquals(dealt, CardSet.DECK, "Each card should be dealt exactly once per deck");
+            dealer.shuffle();
+        }
+    }
+
+    @Test
+    public void testReshufflesWhenEmpty() throws Exception {
+        final Dealer dealer = new ArrayDealer(2);
+        for (int j = 0; j < 52 * 3; j++) {
+            Assert.assertNotNull(dealer.deal());
+        }
+    }
+
+    @Test
+    public void testSeeded() throws Exception {
+        Assert.assertEquals(deal(new ArrayDealer(3), 20), deal(new ArrayDealer(3), 20),
+                "Dealers with the same seed should deal the same cards");
+        Assert.assertNotEquals(deal(new ArrayDealer(3), 20), deal(new ArrayDealer(4), 20),
+                "It's very unlikely that dealers with different seeds deal the same cards");
+    }
+
+    @Test
+    public void testUniform() throws Exception {
+        final Dealer dealer = new ArrayDealer(5);
+        final int[] first = new int[52];
+        for (int i = 0; i < MAX_TRIES; i++) {
+            dealer.shuffle();
+            first[dealer.deal().index()]++;
+        }
+        final double expected = MAX_TRIES / 52.0;
+        for (int i = 0; i < first.length; i++) {
+            Assert.assertEquals(first[i], expected, expected * 0.1, "Card " + CardDTO.of(i) + " dealt first too rarely or too often");
+        }
+    }
+
+    private List<CardDTO> deal(final Dealer dealer, final int n) {
+        final List<CardDTO> rv = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            rv.add(dealer.deal());
+        }
+        return rv;
+    }
+}
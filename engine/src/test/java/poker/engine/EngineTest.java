@@ -16,11 +16,16 @@ import poker.PlayerStateDTO;
 import poker.TableDTO;
 import poker.TableEvent;
 import poker.TableListener;
+import poker.TerminationEvent;
+import poker.TerminationListener;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -140,8 +145,177 @@ public class EngineTest {
         engine.run();
     }
 
+    @Test(timeOut = 5000)
+    public void testAllIn() throws Exception {
+        final TableObserver observer = new TableObserver();
+        final List<String> deaths = new LinkedList<>();
+        final List<Player> players = Arrays.asList(new ShovingPlayer("Shover1", deaths), new ShovingPlayer("Shover2", deaths),
+                new ShovingPlayer("Shover3", deaths), observer);
+        final Engine engine = new Engine(players, new ConfigDTO(100, -1, true));
+        engine.run();
+
+        final List<TableEvent> actions = observer.getActions();
+        Assert.assertEquals(actions.get(actions.size() - 1).getType(), TableEvent.Type.TABLE_CLOSED);
+        for (final String reason : deaths) {
+            Assert.assertEquals(reason, "Not enough money for ante.", "Players going all in should only die when broke");
+        }
+    }
+
+    @Test(timeOut = 5000)
+    public void testStepping() throws Exception {
+        // one thread interleaving several tables, answering for the players itself
+        final List<Engine> engines = new LinkedList<>();
+        for (int i = 0; i < 3; i++) {
+            engines.add(new Engine(Arrays.asList(acp(1), acp(2), acp(3)), new ConfigDTO(50, -1, true)));
+        }
+        while (!engines.isEmpty()) {
+            for (final Iterator<Engine> itr = engines.iterator(); itr.hasNext(); ) {
+                final Engine engine = itr.next();
+                final Engine.State state = engine.step();
+                if (state == Engine.State.AWAIT_MOVE) {
+                    final int seat = engine.getSeatToAct();
+                    Assert.assertTrue(seat >= 0 && seat < 3, "Seat to act should be one of the table's seats");
+                    final int chipsToCall = engine.tableState(seat).getChipsToCall();
+                    engine.submitMove(seat, chipsToCall > engine.playerState(seat).getChipsLeft()? MoveDTO.ALL_IN: MoveDTO.CALL);
+                } else if (state == Engine.State.CLOSED) {
+                    Assert.assertEquals(engine.getSeatToAct(), -1, "Nobody acts at a closed table");
+                    itr.remove();
+                }
+            }
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testMoveOutOfTurn() throws Exception {
+        final Engine engine = new Engine(Arrays.asList(acp(1), acp(2), acp(3)), new ConfigDTO(50, -1, true));
+        while (engine.step() != Engine.State.AWAIT_MOVE) {
+            Assert.assertNotEquals(engine.getState(), Engine.State.CLOSED);
+        }
+        engine.submitMove((engine.getSeatToAct() + 1) % 3, MoveDTO.CALL);
+    }
+
+    @Test(timeOut = 5000)
+    public void testMoveTimeout() throws Exception {
+        final List<String> deaths = new LinkedList<>();
+        final Player sleeper = new SleepingPlayer("Sleeper", deaths);
+        final TableObserver observer = new TableObserver();
+        final Engine engine = new Engine(Arrays.asList(acp(1), sleeper, observer), new ConfigDTO(100, -1, true, 50));
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            engine.setMoveExecutor(executor);
+            engine.run();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(engine.getMoveTimeouts(), Collections.singletonMap("Sleeper", Engine.MAX_TIMEOUTS),
+                "Sleeper should have missed the deadline until removed");
+        Assert.assertEquals(deaths, Collections.singletonList("Too many moves timed out"));
+        Assert.assertTrue(observer.getActions().stream().anyMatch(a -> a.getType() == TableEvent.Type.PLAYER_REMOVED
+                && a.getPlayers().contains("Sleeper")), "Sleeper should have been removed from the table");
+    }
+
+    @Test(timeOut = 5000)
+    public void testInterruptedTable() throws Exception {
+        final TableObserver observer = new TableObserver();
+        final Engine engine = new Engine(Arrays.asList(acp(1), acp(2), observer), new ConfigDTO(100, -1, true, 1000));
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        engine.setMoveExecutor(executor);
+        Thread.currentThread().interrupt();
+        try {
+            engine.run();
+            Assert.fail("Interrupted table should have been aborted");
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(Thread.currentThread().isInterrupted(), "Interrupt should have been kept");
+        } finally {
+            Thread.interrupted();
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(engine.getMoveTimeouts(), Collections.emptyMap(), "No player should be charged a timeout");
+        Assert.assertFalse(observer.getActions().stream().anyMatch(a -> a.getType() == TableEvent.Type.TABLE_CLOSED),
+                "Aborted table should have no winner");
+    }
+
+    @Test
+    public void testInterest() throws Exception {
+        final List<TableEvent> closed = new LinkedList<>();
+        final AtomicInteger all = new AtomicInteger();
+        final Engine engine = new Engine(Arrays.asList(acp(1), acp(2)), new ConfigDTO(50, -1, true));
+        engine.registerObserver(new TableListener() {
+            @Override
+            public boolean isInterestedIn(final TableEvent.Type type) {
+                return type == TableEvent.Type.TABLE_CLOSED;
+            }
+
+            @Override
+            public void tableChanged(final TableEvent event) {
+                closed.add(event);
+            }
+        });
+        engine.registerObserver((TableListener) event -> all.incrementAndGet());
+        engine.run();
+
+        Assert.assertEquals(closed.size(), 1, "Only the table closing should have been delivered");
+        Assert.assertEquals(closed.get(0).getType(), TableEvent.Type.TABLE_CLOSED);
+        Assert.assertTrue(all.get() > 2, "Listener interested in everything should get all the events");
+    }
+
+    @Test
+    public void testSeededTableReplays() throws Exception {
+        final List<String> first = new LinkedList<>();
+        final List<String> second = new LinkedList<>();
+        for (final List<String> events : Arrays.asList(first, second)) {
+            final Engine engine = new Engine(Arrays.asList(acp(1), acp(2), acp(3)), new ConfigDTO(50, -1, true),
+                    RandomSource.splittable(3, 42));
+            engine.registerObserver((AllConsumingListener)event -> events.add(event.toString()));
+            engine.run();
+        }
+        Assert.assertEquals(second, first, "Table from the same leaf of the split tree should be played the same");
+    }
+
+    @Test
+    public void testCardDealtTwice() throws Exception {
+        final List<CardDTO> script = Arrays.asList(card(HEARTS, ACE), card(HEARTS, ACE), // one player
+                card(SPADES, TWO), card(CLUBS, KING), // the other
+                card(DIAMONDS, KING), card(CLUBS, NINE), card(HEARTS, SEVEN), card(SPADES, FOUR), card(DIAMONDS, SIX));
+        final RandomSource rest = RandomSource.splittable(7);
+        final Iterator<CardDTO> dealt = script.iterator();
+        final RandomSource scripted = new RandomSource() {
+            @Override
+            public long nextLong() {
+                return rest.nextLong();
+            }
+
+            @Override
+            public int nextInt(final int bound) {
+                return dealt.hasNext()? dealt.next().index(): rest.nextInt(bound);
+            }
+
+            @Override
+            public RandomSource split() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        final CardRecordingPlayer first = new CardRecordingPlayer("First");
+        final CardRecordingPlayer second = new CardRecordingPlayer("Second");
+        final List<TableEvent> events = new LinkedList<>();
+        final Engine engine = new Engine(Arrays.<Player>asList(first, second), new ConfigDTO(50, -1, true));
+        engine.setDealer(new InfiniteDealer(scripted));
+        engine.registerObserver((TableListener)events::add);
+        engine.run();
+
+        final CardRecordingPlayer aces = first.getCards().get(0).equals(card(HEARTS, ACE))? first: second;
+        final CardRecordingPlayer kings = aces == first? second: first;
+        Assert.assertEquals(aces.getCards(), script.subList(0, 2), "Both copies of the card should be in the hand");
+        Assert.assertEquals(kings.getCards(), script.subList(2, 4), "Cards should be kept in the order dealt");
+        final TableEvent won = events.stream().filter(e -> e.getType() == TableEvent.Type.GAME_WON).findFirst().get();
+        Assert.assertEquals(won.getPlayers(), Collections.singletonList(aces.name()),
+                "The pair of aces dealt twice should beat the pair of kings");
+    }
+
     private CardDTO card(final CardDTO.Suit suit, final CardDTO.Value value) {
-        return new CardDTO(suit, value);
+        return CardDTO.of(suit, value);
     }
 
     private AlwaysCallingPlayer acp(int i) {
@@ -200,6 +374,63 @@ class AlwaysRaisingPlayer extends NamedPlayer {
     }
 }
 
+/**
+ * Bets everything he has: raises if he can, goes all in otherwise.
+ */
+class ShovingPlayer extends NamedPlayer implements TerminationListener {
+    private final List<String> deaths;
+
+    ShovingPlayer(final String name, final List<String> deaths) {
+        super(name);
+        this.deaths = deaths;
+    }
+
+    @Override
+    public MoveDTO makeMove(final PlayerStateDTO pi, final TableDTO table) {
+        final int left = pi.getChipsLeft() - table.getChipsToCall();
+        if (left < 0) {
+            return MoveDTO.ALL_IN;
+        }
+        return left == 0? MoveDTO.CALL: MoveDTO.raise(left);
+    }
+
+    @Override
+    public void terminatedBy(final TerminationEvent event) {
+        if (event.getType() == TerminationEvent.Type.DEATH) {
+            deaths.add(event.getReason());
+        }
+    }
+}
+
+/**
+ * Never makes up his mind.
+ */
+class SleepingPlayer extends NamedPlayer implements TerminationListener {
+    private final List<String> deaths;
+
+    SleepingPlayer(final String name, final List<String> deaths) {
+        super(name);
+        this.deaths = deaths;
+    }
+
+    @Override
+    public MoveDTO makeMove(final PlayerStateDTO pi, final TableDTO table) {
+        try {
+            Thread.sleep(60000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return MoveDTO.CALL;
+    }
+
+    @Override
+    public void terminatedBy(final TerminationEvent event) {
+        if (event.getType() == TerminationEvent.Type.DEATH) {
+            deaths.add(event.getReason());
+        }
+    }
+}
+
 class AlwaysCallingPlayer extends NamedPlayer {
     protected AlwaysCallingPlayer(final String name) {
         super(name);
@@ -210,3 +441,23 @@ class AlwaysCallingPlayer extends NamedPlayer {
         return MoveDTO.CALL;
     }
 }
+
+class CardRecordingPlayer extends NamedPlayer {
+    private List<CardDTO> cards;
+
+    protected CardRecordingPlayer(final String name) {
+        super(name);
+    }
+
+    @Override
+    public MoveDTO makeMove(final PlayerStateDTO pi, final TableDTO table) {
+        if (cards == null) {
+            cards = pi.getCards();
+        }
+        return MoveDTO.CALL;
+    }
+
+    List<CardDTO> getCards() {
+        return cards;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * @(#) EventBusTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import poker.BaseEvent;
+import poker.BidEvent;
+import poker.BidListener;
+import poker.ConfigDTO;
+import poker.MoveDTO;
+import poker.TableEvent;
+import poker.TableListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EventBusTest {
+    public static final int EVENTS = 100000;
+
+    @Test(timeOut = 10000)
+    public void testDeliveredInOrder() throws Exception {
+        final List<BaseEvent> received = new ArrayList<>();
+        try (final EventBus bus = new EventBus(2, 16, EventBus.WaitStrategy.YIELD, EventBus.Overflow.BLOCK)) {
+            final EventBus.Channel channel = bus.channel((AllConsumingListener) received::add);
+            for (int i = 0; i < EVENTS; i++) {
+                channel.consume(new BidEvent("player" + i, MoveDTO.CALL));
+            }
+            channel.close();
+        }
+
+        Assert.assertEquals(received.size(), EVENTS, "All events should be delivered when blocking");
+        for (int i = 0; i < EVENTS; i++) {
+            Assert.assertEquals(((BidEvent)received.get(i)).getPlayer(), "player" + i, "Events should be delivered in order");
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testDrop() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger received = new AtomicInteger();
+        final EventBus bus = new EventBus(1, 4, EventBus.WaitStrategy.BACK_OFF, EventBus.Overflow.DROP);
+        final EventBus.Channel channel = bus.channel((BidListener) event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.incrementAndGet();
+        });
+        for (int i = 0; i < 100; i++) {
+            channel.consume(new BidEvent("player", MoveDTO.FOLD));
+        }
+        release.countDown();
+        channel.close();
+        bus.close();
+
+        Assert.assertTrue(bus.getDropped() > 0, "Stuck consumer should make the channel overflow");
+        Assert.assertEquals(received.get() + bus.getDropped(), 100, "Every event should be either delivered or dropped");
+    }
+
+    @Test(timeOut = 10000)
+    public void testTables() throws Exception {
+        final AtomicInteger closed = new AtomicInteger();
+        final AllConsumingListener counter = event -> {
+            if (event instanceof TableEvent && ((TableEvent)event).getType() == TableEvent.Type.TABLE_CLOSED) {
+                closed.incrementAndGet();
+            }
+        };
+        try (final EventBus bus = new EventBus(2, 64, EventBus.WaitStrategy.BACK_OFF, EventBus.Overflow.BLOCK)) {
+            for (int i = 0; i < 20; i++) {
+                final Engine engine = new Engine(Arrays.asList(new AlwaysCallingPlayer("p1"), new AlwaysCallingPlayer("p2")),
+                        new ConfigDTO(50, -1, true));
+                bus.channel(engine, counter);
+                engine.run();
+            }
+        }
+        Assert.assertEquals(closed.get(), 20, "Every table should have been closed");
+    }
+
+    @Test(timeOut = 10000)
+    public void testOnlyWhatObserverListensTo() throws Exception {
+        final List<BaseEvent> received = new ArrayList<>();
+        final List<ConfigDTO> configs = new ArrayList<>();
+        final ConfigDTO config = new ConfigDTO(50, -1, true);
+        final Object observer = new BidListener() {
+            @Override
+            public void bidMade(final BidEvent event) {
+                received.add(event);
+            }
+        };
+        final TableListener won = new TableListener() {
+            @Override
+            public void configChanged(final ConfigDTO cfg) {
+                configs.add(cfg);
+            }
+
+            @Override
+            public boolean isInterestedIn(final TableEvent.Type type) {
+                return type == TableEvent.Type.GAME_WON;
+            }
+
+            @Override
+            public void tableChanged(final TableEvent event) {
+                received.add(event);
+            }
+        };
+        try (final EventBus bus = new EventBus(1, 1024, EventBus.WaitStrategy.BACK_OFF, EventBus.Overflow.BLOCK)) {
+            final Engine engine = new Engine(Arrays.asList(new AlwaysCallingPlayer("p1"), new AlwaysCallingPlayer("p2")),
+                    config);
+            bus.channel(engine, observer);
+            bus.channel(engine, won);
+            engine.run();
+        }
+        Assert.assertFalse(received.isEmpty(), "Bids and won games should have been delivered");
+        for (final BaseEvent event : received) {
+            Assert.assertTrue(event instanceof BidEvent
+                    || event instanceof TableEvent && ((TableEvent)event).getType() == TableEvent.Type.GAME_WON,
+                    "Only bids and won games should have been delivered: " + event);
+        }
+        Assert.assertEquals(configs, Arrays.asList(config), "Configuration should have been passed on joining");
+    }
+}
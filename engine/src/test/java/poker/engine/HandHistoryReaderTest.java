@@ -0,0 +1,140 @@
+/*
+ * @(#) HandHistoryReaderTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import poker.ConfigDTO;
+import poker.MoveDTO;
+import poker.player.michal.RandomPlayer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class HandHistoryReaderTest {
+    private static final ConfigDTO CONFIG = new ConfigDTO(100, 20, true);
+    private static final int TABLES = 30;
+
+    private final Map<Long, Integer> gamesPlayed = new TreeMap<>();
+    private Path directory;
+    private HandHistoryReader reader;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("hands");
+        try (HandHistoryWriter writer = new HandHistoryWriter(directory, 4096)) {
+            for (int table = 0; table < TABLES; table++) {
+                final Engine engine = new Engine(Arrays.asList(new RandomPlayer("A/10/30"), new RandomPlayer("B/20/60"),
+                        new RandomPlayer("C/0/50"), new RandomPlayer("D/30/30")), CONFIG);
+                engine.registerObserver(writer.recorder(table));
+                engine.run();
+                gamesPlayed.put((long)table, engine.getGamesPlayed());
+            }
+        }
+        reader = new HandHistoryReader(directory);
+    }
+
+    @AfterClass
+    public void tearDown() throws Exception {
+        reader.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Path file : (Iterable<Path>)files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testAllHandsRead() throws Exception {
+        final Map<Long, Integer> sequential = new TreeMap<>();
+        reader.hands(false).forEach(hand -> {
+            Assert.assertEquals(hand.getHand(), (int)sequential.getOrDefault(hand.getTable(), 0),
+                    "Hands of table " + hand.getTable() + " should be read in order");
+            sequential.merge(hand.getTable(), 1, Integer::sum);
+        });
+        Assert.assertEquals(sequential, gamesPlayed, "Every hand played should have been read");
+
+        final Map<Long, Long> parallel = reader.hands(true)
+                .collect(Collectors.groupingByConcurrent(HandHistoryReader.HandRecord::getTable, Collectors.counting()));
+        for (final Map.Entry<Long, Integer> entry : gamesPlayed.entrySet()) {
+            Assert.assertEquals((long)parallel.get(entry.getKey()), (long)entry.getValue(),
+                    "Parallel stream should read every hand of table " + entry.getKey());
+        }
+    }
+
+    @Test
+    public void testSplitting() throws Exception {
+        final Spliterator<HandHistoryReader.HandRecord> all = reader.spliterator();
+        final Spliterator<HandHistoryReader.HandRecord> prefix = all.trySplit();
+        Assert.assertNotNull(prefix, "History of several segments should split");
+        final AtomicInteger hands = new AtomicInteger();
+        prefix.forEachRemaining(hand -> hands.incrementAndGet());
+        final int first = hands.get();
+        all.forEachRemaining(hand -> hands.incrementAndGet());
+        Assert.assertTrue(first > 0 && hands.get() > first, "Both parts should have records");
+        Assert.assertEquals(hands.get(), gamesPlayed.values().stream().mapToInt(Integer::intValue).sum(),
+                "The parts should have all the records");
+    }
+
+    @Test
+    public void testVisitor() throws Exception {
+        reader.hands(true).forEach(hand -> {
+            final int[] chips = new int[3];
+            hand.accept(new HandHistoryReader.Visitor() {
+                @Override
+                public void forcedBet(final int seat, final int paid) {
+                    chips[0] += paid;
+                }
+
+                @Override
+                public void moveMade(final int seat, final MoveDTO.MoveType type, final int raise, final int paid) {
+                    chips[0] += paid;
+                    if (type == MoveDTO.MoveType.RAISE) {
+                        Assert.assertTrue(raise > 0 && raise <= CONFIG.getMaximumBet(), "Raise within the limit");
+                    }
+                }
+
+                @Override
+                public void won(final int seat, final int won) {
+                    chips[1] += won;
+                    chips[2]++;
+                }
+            });
+            Assert.assertEquals(chips[1], chips[0], "The pot should be won in hand " + hand.getHand() + " of table "
+                    + hand.getTable());
+            Assert.assertTrue(chips[2] > 0 || chips[0] == 0, "Every hand with chips in the pot has a winner");
+        });
+    }
+
+    @Test
+    public void testReplay() throws Exception {
+        for (final long table : gamesPlayed.keySet()) {
+            Assert.assertEquals(reader.replay(table, CONFIG), -1, "Table " + table + " should replay identically");
+        }
+    }
+
+    @Test
+    public void testReplayDiverges() throws Exception {
+        Assert.assertEquals(reader.replay(0, new ConfigDTO(CONFIG.getInitialChips() + 1, CONFIG.getMaximumBet(), true)), 0,
+                "Table with different chips should differ from the first hand");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testReplayUnknownTable() throws Exception {
+        reader.replay(TABLES, CONFIG);
+    }
+}
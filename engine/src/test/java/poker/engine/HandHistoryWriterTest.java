@@ -0,0 +1,137 @@
+/*
+ * @(#) HandHistoryWriterTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import poker.ConfigDTO;
+import poker.MoveDTO;
+import poker.player.michal.RandomPlayer;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class HandHistoryWriterTest {
+    @Test(timeOut = 10000)
+    public void testRecordsAddUp() throws Exception {
+        final Path directory = Files.createTempDirectory("hands");
+        final Map<Long, Integer> gamesPlayed = new HashMap<>();
+        final HandHistoryWriter writer = new HandHistoryWriter(directory, 4096);
+        try {
+            for (int table = 0; table < 20; table++) {
+                final Engine engine = new Engine(Arrays.asList(new RandomPlayer("A/10/30"), new RandomPlayer("B/20/60"),
+                        new RandomPlayer("C/0/50")), new ConfigDTO(100, 20, true));
+                engine.registerObserver(writer.recorder(table));
+                engine.run();
+                gamesPlayed.put((long)table, engine.getGamesPlayed());
+            }
+        } finally {
+            writer.close();
+        }
+
+        final List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.sorted().collect(Collectors.toList());
+        }
+        Assert.assertTrue(segments.size() > 1, "Small segments should have been rolled over");
+        long size = 0;
+        for (final Path segment : segments) {
+            size += Files.size(segment);
+        }
+        Assert.assertEquals(size, writer.getBytes(), "Closed segments should have been truncated to their records");
+
+        final Map<Long, Integer> handsRead = new HashMap<>();
+        for (final Path segment : segments) {
+            final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+            for (int length = buffer.getInt(); length > 0; length = buffer.remaining() >= 4? buffer.getInt(): 0) {
+                final int end = buffer.position() + length;
+                final long table = readVar(buffer);
+                final int hand = (int)readVar(buffer);
+                Assert.assertEquals(hand, (int)handsRead.getOrDefault(table, 0), "Hands of table " + table + " in order");
+                handsRead.put(table, hand + 1);
+                checkHand(buffer, table + "/" + hand);
+                Assert.assertEquals(buffer.position(), end, "Record " + table + "/" + hand + " should end at its length");
+            }
+            Files.delete(segment);
+        }
+        Files.delete(directory);
+
+        Assert.assertEquals(handsRead, gamesPlayed, "Every hand played should have been written");
+    }
+
+    private void checkHand(final ByteBuffer buffer, final String hand) {
+        final int players = buffer.get();
+        int stacks = 0;
+        for (int i = 0; i < players; i++) {
+            buffer.get();
+            stacks += readVar(buffer);
+        }
+
+        long cards = 0;
+        int community = 0;
+        int paid = 0;
+        for (int event = buffer.get() & 0xFF; event != HandHistoryWriter.END_OF_EVENTS; event = buffer.get() & 0xFF) {
+            switch (event >>> 5) {
+            case HandHistoryWriter.TAG_FORCED:
+                paid += readVar(buffer);
+                break;
+            case HandHistoryWriter.TAG_PRIVATE:
+                final int pair = buffer.getShort();
+                cards = dealt(cards, pair >>> 6, hand);
+                cards = dealt(cards, pair & 0x3F, hand);
+                break;
+            case HandHistoryWriter.TAG_COMMUNITY:
+                cards = dealt(cards, buffer.get(), hand);
+                community++;
+                break;
+            case HandHistoryWriter.TAG_MOVE:
+                if (buffer.get() == MoveDTO.MoveType.RAISE.ordinal()) {
+                    Assert.assertTrue(readVar(buffer) > 0, "Raise by some chips in " + hand);
+                }
+                paid += readVar(buffer);
+                break;
+            case HandHistoryWriter.TAG_TIMEOUT:
+            case HandHistoryWriter.TAG_REMOVED:
+                break;
+            default:
+                Assert.fail("Unknown event " + event + " in " + hand);
+            }
+        }
+
+        int won = 0;
+        for (int winners = buffer.get(); winners > 0; winners--) {
+            buffer.get();
+            won += readVar(buffer);
+        }
+        Assert.assertTrue(community == 0 || community >= 3 && community <= 5, "Flop, turn and river in " + hand);
+        Assert.assertEquals(won, paid, "The pot should be won in " + hand);
+        Assert.assertTrue(paid <= stacks, "Players cannot pay more than they have in " + hand);
+    }
+
+    private long dealt(final long cards, final int card, final String hand) {
+        Assert.assertEquals(cards & 1L << card, 0L, "Card " + card + " dealt twice in " + hand);
+        return cards | 1L << card;
+    }
+
+    private long readVar(final ByteBuffer buffer) {
+        long rv = 0;
+        for (int shift = 0; ; shift += 7) {
+            final byte b = buffer.get();
+            rv |= (long)(b & 0x7F) << shift;
+            if (b >= 0) {
+                return rv;
+            }
+        }
+    }
+}
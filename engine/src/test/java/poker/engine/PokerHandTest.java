@@ -111,9 +111,9 @@ public class PokerHandTest {
 
     @Test
     public void testCompareToDiff() throws Exception {
-        final List<CardDTO> nothing = Arrays.asList(new CardDTO(DIAMONDS, THREE), new CardDTO(DIAMONDS, FIVE), new CardDTO(DIAMONDS, SEVEN));
-        final List<CardDTO> pair = Arrays.asList(new CardDTO(CLUBS, ACE), new CardDTO(HEARTS, ACE));
-        final List<CardDTO> three = Arrays.asList(new CardDTO(CLUBS, KING), new CardDTO(HEARTS, KING), new CardDTO(SPADES, KING));
+        final List<CardDTO> nothing = Arrays.asList(CardDTO.of(DIAMONDS, THREE), CardDTO.of(DIAMONDS, FIVE), CardDTO.of(DIAMONDS, SEVEN));
+        final List<CardDTO> pair = Arrays.asList(CardDTO.of(CLUBS, ACE), CardDTO.of(HEARTS, ACE));
+        final List<CardDTO> three = Arrays.asList(CardDTO.of(CLUBS, KING), CardDTO.of(HEARTS, KING), CardDTO.of(SPADES, KING));
 
         final PokerHand pairHand = PokerHand.selectBest("pairHand", nothing, pair);
         final PokerHand threeHand = PokerHand.selectBest("threeHand", nothing, three);
@@ -125,9 +125,9 @@ public class PokerHandTest {
 
     @Test
     public void testCompareToEq() throws Exception {
-        final List<CardDTO> nothing1 = Arrays.asList(new CardDTO(DIAMONDS, THREE), new CardDTO(DIAMONDS, FIVE), new CardDTO(DIAMONDS, SEVEN));
-        final List<CardDTO> nothing2 = Arrays.asList(new CardDTO(SPADES, THREE), new CardDTO(SPADES, FIVE), new CardDTO(SPADES, SEVEN));
-        final List<CardDTO> pair = Arrays.asList(new CardDTO(CLUBS, ACE), new CardDTO(HEARTS, ACE));
+        final List<CardDTO> nothing1 = Arrays.asList(CardDTO.of(DIAMONDS, THREE), CardDTO.of(DIAMONDS, FIVE), CardDTO.of(DIAMONDS, SEVEN));
+        final List<CardDTO> nothing2 = Arrays.asList(CardDTO.of(SPADES, THREE), CardDTO.of(SPADES, FIVE), CardDTO.of(SPADES, SEVEN));
+        final List<CardDTO> pair = Arrays.asList(CardDTO.of(CLUBS, ACE), CardDTO.of(HEARTS, ACE));
 
         final PokerHand pair1 = PokerHand.selectBest("pairHand", nothing1, pair);
         final PokerHand pair2 = PokerHand.selectBest("pairHand", nothing2, pair);
@@ -139,9 +139,9 @@ public class PokerHandTest {
 
     @Test
     public void testCompareToKicker() throws Exception {
-        final List<CardDTO> nothing1 = Arrays.asList(new CardDTO(DIAMONDS, THREE), new CardDTO(DIAMONDS, FIVE), new CardDTO(DIAMONDS, SEVEN));
-        final List<CardDTO> nothing2 = Arrays.asList(new CardDTO(SPADES, FOUR), new CardDTO(SPADES, FIVE), new CardDTO(SPADES, SEVEN));
-        final List<CardDTO> pair = Arrays.asList(new CardDTO(CLUBS, ACE), new CardDTO(HEARTS, ACE));
+        final List<CardDTO> nothing1 = Arrays.asList(CardDTO.of(DIAMONDS, THREE), CardDTO.of(DIAMONDS, FIVE), CardDTO.of(DIAMONDS, SEVEN));
+        final List<CardDTO> nothing2 = Arrays.asList(CardDTO.of(SPADES, FOUR), CardDTO.of(SPADES, FIVE), CardDTO.of(SPADES, SEVEN));
+        final List<CardDTO> pair = Arrays.asList(CardDTO.of(CLUBS, ACE), CardDTO.of(HEARTS, ACE));
 
         final PokerHand pair1 = PokerHand.selectBest("pairHand", nothing1, pair);
         final PokerHand pair2 = PokerHand.selectBest("pairHand", nothing2, pair);
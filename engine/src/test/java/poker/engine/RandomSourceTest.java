@@ -0,0 +1,117 @@
+/*
+ * @(#) RandomSourceTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+public class RandomSourceTest {
+    public static final int MAX_TRIES = 100000;
+
+    @DataProvider
+    public Object[][] sourcesDP() {
+        return new Object[][] {
+                {(Supplier<RandomSource>)() -> RandomSource.secure(new byte[] {1, 2, 3})},
+                {(Supplier<RandomSource>)() -> RandomSource.splittable(17)},
+                {(Supplier<RandomSource>)() -> RandomSource.xoroshiro(17)},
+                {(Supplier<RandomSource>)() -> RandomSource.counter(17)},
+        };
+    }
+
+    @Test(dataProvider = "sourcesDP")
+    public void testBounded(final Supplier<RandomSource> factory) throws Exception {
+        final RandomSource rnd = factory.get();
+        for (final int bound : new int[] {1, 2, 7, 52, 64, 1000, Integer.MAX_VALUE}) {
+            for (int i = 0; i < 1000; i++) {
+                final int value = rnd.nextInt(bound);
+                Assert.assertTrue(value >= 0 && value < bound, value + " out of [0, " + bound + ")");
+            }
+        }
+    }
+
+    @Test(dataProvider = "sourcesDP")
+    public void testUniform(final Supplier<RandomSource> factory) throws Exception {
+        final RandomSource rnd = factory.get();
+        final int[] counts = new int[13];
+        for (int i = 0; i < MAX_TRIES; i++) {
+            counts[rnd.nextInt(counts.length)]++;
+        }
+        final double expected = (double)MAX_TRIES / counts.length;
+        for (final int count : counts) {
+            Assert.assertEquals(count, expected, expected * 0.05);
+        }
+    }
+
+    @Test(dataProvider = "sourcesDP")
+    public void testSplitIndependent(final Supplier<RandomSource> factory) throws Exception {
+        final RandomSource rnd = factory.get();
+        final RandomSource split = rnd.split();
+        int same = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (rnd.nextLong() == split.nextLong()) {
+                same++;
+            }
+        }
+        Assert.assertEquals(same, 0, "Split streams should differ");
+    }
+
+    @Test(dataProvider = "sourcesDP")
+    public void testSplitTwoLevels(final Supplier<RandomSource> factory) throws Exception {
+        final RandomSource parent = factory.get();
+        final RandomSource child = parent.split();
+        final RandomSource grandchild = child.split();
+        final RandomSource sibling = parent.split();
+        final List<RandomSource> sources = Arrays.asList(parent, child, grandchild, sibling);
+        final Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            for (final RandomSource source : sources) {
+                Assert.assertTrue(seen.add(source.nextLong()), "Streams of a split tree should not overlap");
+            }
+        }
+    }
+
+    @Test
+    public void testXoroshiroDeterministic() throws Exception {
+        final RandomSource first = RandomSource.xoroshiro(5);
+        final RandomSource second = RandomSource.xoroshiro(5);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(first.nextLong(), second.nextLong());
+        }
+    }
+
+    @Test
+    public void testSplitTree() throws Exception {
+        final long[] forward = new long[64];
+        for (int index = 0; index < forward.length; index++) {
+            forward[index] = RandomSource.splittable(11, index).nextLong();
+        }
+        for (int index = forward.length - 1; index >= 0; index--) {
+            Assert.assertEquals(RandomSource.splittable(11, index).nextLong(), forward[index],
+                    "Leaf " + index + " should not depend on the leaves derived before");
+        }
+        Assert.assertEquals(Arrays.stream(forward).distinct().count(), forward.length, "Leaves should differ");
+        Assert.assertNotEquals(RandomSource.splittable(12, 5).nextLong(), forward[5], "Seeds should matter");
+    }
+
+    @Test
+    public void testCounterSeek() throws Exception {
+        final CounterRandomSource rnd = new CounterRandomSource(5);
+        final long[] values = new long[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rnd.nextLong();
+        }
+        rnd.seek(42);
+        Assert.assertEquals(rnd.nextLong(), values[42], "Seeking should reproduce the stream from the given position");
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * @(#) ReplayableDealerTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import poker.CardDTO;
+import poker.CardSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReplayableDealerTest {
+    @Test
+    public void testFullDeckDealt() throws Exception {
+        final Dealer dealer = new ReplayableDealer(RandomSource.splittable(1));
+        for (int i = 0; i < 100; i++) {
+            CardSet dealt = CardSet.EMPTY;
+            for (int j = 0; j < 52; j++) {
+                dealt = dealt.with(dealer.deal());
+            }
+            Assert.assertEquals(dealt, CardSet.DECK, "Each card should be dealt exactly once per deck");
+            dealer.shuffle();
+        }
+    }
+
+    @Test
+    public void testDecksDontDependOnCardsDealt() throws Exception {
+        final Dealer first = new ReplayableDealer(RandomSource.splittable(2));
+        final Dealer second = new ReplayableDealer(RandomSource.splittable(2));
+        for (int deck = 0; deck < 50; deck++) {
+            final List<CardDTO> few = deal(first, 5);
+            final List<CardDTO> many = deal(second, 5 + deck % 20);
+            Assert.assertEquals(many.subList(0, 5), few, "Deck " + deck + " should start with the same cards");
+            first.shuffle();
+            second.shuffle();
+        }
+    }
+
+    @Test
+    public void testDecksDiffer() throws Exception {
+        final Dealer dealer = new ReplayableDealer(RandomSource.splittable(3));
+        final List<CardDTO> deck = deal(dealer, 10);
+        dealer.shuffle();
+        Assert.assertNotEquals(deal(dealer, 10), deck, "It's very unlikely that two decks start the same");
+    }
+
+    private List<CardDTO> deal(final Dealer dealer, final int n) {
+        final List<CardDTO> rv = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            rv.add(dealer.deal());
+        }
+        return rv;
+    }
+}
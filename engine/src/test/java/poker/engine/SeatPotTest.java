@@ -0,0 +1,199 @@
+/*
+ * @(#) SeatPotTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+public class SeatPotTest {
+    private final SeatPot pot = new SeatPot(4);
+
+    @Test
+    public void testEmpty() throws Exception {
+        Assert.assertEquals(pot.total(), 0, "New pot should be empty");
+        Assert.assertEquals(pot.maxContribution(), 0, "Max contribution for new pot should be 0");
+        Assert.assertTrue(pot.equalised(), "Empty pot is equalised");
+        for (int seat = 0; seat < 4; seat++) {
+            Assert.assertEquals(pot.playersContribution(seat), 0, "Contribution of non existing player should be 0");
+        }
+    }
+
+    @Test(dependsOnMethods = "testEmpty")
+    public void testAdded() throws Exception {
+        pot.add(0, 10);
+        Assert.assertEquals(pot.total(), 10, "One player contributed 10");
+        Assert.assertEquals(pot.maxContribution(), 10, "One player contributed 10");
+        Assert.assertTrue(pot.equalised(), "A single player is always equalised");
+
+        pot.add(1, 15);
+        pot.add(2, 5);
+        pot.add(3, 20);
+        Assert.assertEquals(pot.total(), 50, "Four players contributed 50");
+        Assert.assertEquals(pot.maxContribution(), 20, "Player 3 contributed 20");
+        Assert.assertEquals(pot.playersContribution(0), 10, "Player 0 contributed 10");
+        Assert.assertEquals(pot.playersContribution(1), 15, "Player 1 contributed 15");
+        Assert.assertEquals(pot.playersContribution(2), 5, "Player 2 contributed 5");
+        Assert.assertEquals(pot.playersContribution(3), 20, "Player 3 contributed 20");
+        Assert.assertFalse(pot.equalised());
+    }
+
+    @Test(dependsOnMethods = "testAdded")
+    public void testRemove() throws Exception {
+        pot.removePlayer(0);
+        Assert.assertEquals(pot.total(), 50, "Chips of the removed player stay in the pot");
+        Assert.assertEquals(pot.playersContribution(0), 0, "Player 0 is removed, so it doesn't exist in game");
+
+        pot.removePlayer(3);
+        Assert.assertEquals(pot.maxContribution(), 15, "Player 3 removed, the next best is 1 who contributed 15");
+        Assert.assertFalse(pot.equalised());
+
+        pot.add(2, 10);
+        Assert.assertTrue(pot.equalised(), "Both players left contributed 15");
+    }
+
+    @Test(dependsOnMethods = "testRemove")
+    public void testDivide() throws Exception {
+        final int[] spoils = pot.divide(new int[] {0, 7, 7, 0}, 0);
+        Assert.assertEquals(spoils[1], 30);
+        Assert.assertEquals(spoils[2], 30);
+        Assert.assertEquals(spoils[0], 0);
+        Assert.assertEquals(spoils[3], 0);
+    }
+
+    @Test(dependsOnMethods = "testDivide")
+    public void testClear() throws Exception {
+        pot.clear();
+        testEmpty();
+    }
+
+    @Test
+    public void testSidePots() throws Exception {
+        final SeatPot pot = new SeatPot(4);
+        pot.add(0, 10);
+        pot.allIn(0);
+        pot.add(1, 30);
+        pot.allIn(1);
+        pot.add(2, 50);
+        pot.add(3, 50);
+        Assert.assertTrue(pot.equalised(), "Players all in don't need to match the maximum");
+        Assert.assertEquals(pot.betting(), 2);
+
+        // main pot 40 for seat 0, side pot 60 for seat 1, the last 40 shared by 2 and 3
+        final int[] spoils = pot.divide(new int[] {9, 8, 5, 5}, 0);
+        Assert.assertEquals(spoils, new int[] {40, 60, 20, 20});
+
+        // seat 1 wins everything he contributed to, the rest goes to seat 3
+        Assert.assertEquals(pot.divide(new int[] {1, 9, 5, 6}, 0), new int[] {0, 100, 0, 40});
+    }
+
+    @Test
+    public void testFoldedChipsGoToTheLayerTheyWerePaidInto() throws Exception {
+        final SeatPot pot = new SeatPot(3);
+        pot.add(0, 20);
+        pot.allIn(0);
+        pot.add(1, 50);
+        pot.add(2, 60);
+        pot.removePlayer(2);
+
+        Assert.assertEquals(pot.maxContribution(), 50);
+        Assert.assertEquals(pot.divide(new int[] {9, 1, 0}, 0), new int[] {60, 70, 0},
+                "Seat 0 can win only 20 from each player, the rest is won by seat 1");
+    }
+
+    @Test
+    public void testOddChips() throws Exception {
+        final SeatPot pot = new SeatPot(4);
+        pot.add(0, 3);
+        pot.add(1, 3);
+        pot.add(2, 3);
+        pot.add(3, 2);
+        pot.removePlayer(3);
+
+        Assert.assertEquals(pot.divide(new int[] {5, 5, 1, 0}, 1), new int[] {5, 6, 0, 0},
+                "The odd chip goes to the first winner starting from seat 1");
+        Assert.assertEquals(pot.divide(new int[] {5, 5, 1, 0}, 2), new int[] {6, 5, 0, 0},
+                "The odd chip goes to the first winner starting from seat 2");
+    }
+
+    @Test
+    public void testDivideKeepsChips() throws Exception {
+        final Random rnd = new Random(17);
+        final SeatPot pot = new SeatPot(6);
+        final int[] ranks = new int[6];
+        for (int game = 0; game < 1000; game++) {
+            pot.clear();
+            for (int seat = 0; seat < 6; seat++) {
+                pot.add(seat, rnd.nextInt(100));
+                ranks[seat] = rnd.nextInt(4);
+                if (rnd.nextBoolean()) {
+                    pot.allIn(seat);
+                }
+            }
+            for (int seat = 1; seat < 6; seat++) {
+                if (rnd.nextInt(3) == 0) {
+                    pot.removePlayer(seat);
+                }
+            }
+            int sum = 0;
+            for (final int chips : pot.divide(ranks, rnd.nextInt(6))) {
+                sum += chips;
+            }
+            Assert.assertEquals(sum, pot.total(), "All chips should be won in game " + game);
+        }
+    }
+
+    @Test
+    public void testAgainstScan() throws Exception {
+        final Random rnd = new Random(13);
+        final SeatPot pot = new SeatPot(10);
+        final int[] contributions = new int[10];
+        final boolean[] in = new boolean[10];
+        final boolean[] allIn = new boolean[10];
+        for (int game = 0; game < 1000; game++) {
+            pot.clear();
+            for (int i = 0; i < contributions.length; i++) {
+                contributions[i] = 0;
+                in[i] = false;
+                allIn[i] = false;
+            }
+            for (int move = 0; move < 50; move++) {
+                final int seat = rnd.nextInt(contributions.length);
+                if (rnd.nextInt(10) == 0) {
+                    pot.removePlayer(seat);
+                    in[seat] = false;
+                    allIn[seat] = false;
+                    contributions[seat] = -1;
+                } else if (rnd.nextInt(10) == 0) {
+                    pot.allIn(seat);
+                    allIn[seat] = in[seat];
+                } else if (contributions[seat] >= 0 && !allIn[seat]) {
+                    final int chips = rnd.nextInt(3) * 5;
+                    pot.add(seat, chips);
+                    contributions[seat] += chips;
+                    in[seat] = true;
+                }
+
+                int max = 0;
+                boolean equalised = true;
+                for (int i = 0; i < contributions.length; i++) {
+                    if (in[i]) {
+                        max = Math.max(max, contributions[i]);
+                    }
+                }
+                for (int i = 0; i < contributions.length; i++) {
+                    if (in[i] && !allIn[i] && contributions[i] != max) {
+                        equalised = false;
+                    }
+                }
+                Assert.assertEquals(pot.maxContribution(), max, "Max contribution in game " + game + ", move " + move);
+                Assert.assertEquals(pot.equalised(), equalised, "Equalised in game " + game + ", move " + move);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * @(#) SequentialStopTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import poker.TableEvent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SequentialStopTest {
+    @Test
+    public void testQuantile() throws Exception {
+        Assert.assertEquals(SequentialStop.quantile(0.5), 0, 1e-9);
+        Assert.assertEquals(SequentialStop.quantile(0.975), 1.959964, 1e-6);
+        Assert.assertEquals(SequentialStop.quantile(0.001), -3.090232, 1e-6);
+        Assert.assertEquals(SequentialStop.z(0.05), 1.959964, 1e-6);
+    }
+
+    @Test
+    public void testTwoPlayers() throws Exception {
+        final SequentialStop test = new SequentialStop(0.95, 0.05);
+        final AtomicInteger decisions = new AtomicInteger();
+        test.whenDecided(decisions::incrementAndGet);
+        created(test, "A", "B");
+
+        final Random rnd = new Random(3);
+        int tables = 0;
+        while (test.getBest() == null && tables < 100000) {
+            closed(test, rnd.nextInt(100) < 60? "A": "B");
+            tables++;
+        }
+        Assert.assertEquals(test.getBest(), "A", "A wins 60% of tables");
+        Assert.assertFalse(test.isEven(), "Players with a clear edge aren't even");
+        Assert.assertEquals(test.getDecidedAfter(), tables);
+        Assert.assertTrue(tables < 2000, "The test should decide quickly with an edge bigger than expected, took " + tables);
+
+        closed(test, "B");
+        Assert.assertEquals(decisions.get(), 1, "The decision should be announced once");
+        Assert.assertEquals(test.getDecidedAfter(), tables, "Tables in flight don't change the decision");
+    }
+
+    @Test
+    public void testEvenPlayers() throws Exception {
+        final SequentialStop test = new SequentialStop(0.95, 0.05);
+        final AtomicInteger decisions = new AtomicInteger();
+        test.whenDecided(decisions::incrementAndGet);
+        created(test, "A", "B");
+        int tables = 0;
+        while (decisions.get() == 0 && tables < 10000) {
+            closed(test, tables++ % 2 == 0? "A": "B");
+        }
+        Assert.assertNull(test.getBest(), "Players winning in turns shouldn't be told apart");
+        Assert.assertTrue(test.isEven(), "Players winning in turns should be found even, took " + tables);
+        Assert.assertEquals(test.getDecidedAfter(), tables);
+        final Map<String, double[]> intervals = test.intervals();
+        Assert.assertEquals(intervals.get("A")[0], 0.5, 1e-9);
+        Assert.assertTrue(intervals.get("A")[1] < 0.5 && intervals.get("A")[2] > 0.5, "Interval should cover a half");
+    }
+
+    @Test
+    public void testSeveralPlayers() throws Exception {
+        final SequentialStop test = new SequentialStop(0.99, 0.05);
+        created(test, "A", "B", "C");
+        final Random rnd = new Random(5);
+        int tables = 0;
+        while (test.getBest() == null && tables < 100000) {
+            final int r = rnd.nextInt(100);
+            closed(test, r < 50? "C": r < 75? "A": "B");
+            tables++;
+        }
+        Assert.assertEquals(test.getBest(), "C", "C wins half of the tables");
+        Assert.assertEquals(Integer.bitCount(tables / SequentialStop.FIRST_LOOK), 1,
+                "Several players are checked when the number of tables doubles, decided after " + tables);
+        final Map<String, double[]> intervals = test.intervals();
+        Assert.assertTrue(intervals.get("C")[1] > intervals.get("A")[2], "The best one's interval should be above");
+    }
+
+    private void created(final SequentialStop test, final String... players) {
+        test.tableChanged(new TableEvent(TableEvent.Type.TABLE_CREATED, Arrays.asList(players)));
+    }
+
+    private void closed(final SequentialStop test, final String winner) {
+        test.tableChanged(new TableEvent(TableEvent.Type.TABLE_CLOSED, Collections.singletonList(winner)));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * @(#) TournamentSchedulerTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import poker.ConfigDTO;
+import poker.Player;
+import poker.TableEvent;
+import poker.TableListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TournamentSchedulerTest {
+    private static final ConfigDTO CONFIG = new ConfigDTO(50, -1, true);
+
+    @Test(timeOut = 10000)
+    public void testAllTablesPlayed() throws Exception {
+        final AtomicInteger open = new AtomicInteger();
+        final AtomicInteger maxOpen = new AtomicInteger();
+        final TournamentScheduler scheduler = new TournamentScheduler(4, 3, index -> {
+            final Engine engine = table();
+            engine.registerObserver((TableListener) event -> {
+                if (event.getType() == TableEvent.Type.TABLE_CREATED) {
+                    maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+                } else if (event.getType() == TableEvent.Type.TABLE_CLOSED) {
+                    open.decrementAndGet();
+                }
+            });
+            return engine;
+        });
+
+        Assert.assertTrue(scheduler.play(200, 0), "All tables should have been played");
+        Assert.assertEquals(scheduler.getTablesPlayed(), 200);
+        Assert.assertTrue(scheduler.getHandsPlayed() >= 200, "Each table takes at least one hand");
+        Assert.assertTrue(maxOpen.get() <= 3, "No more than 3 tables should be played at a time, got " + maxOpen.get());
+        Assert.assertFalse(scheduler.stop(1, TimeUnit.SECONDS), "Finished tournament cannot be stopped");
+    }
+
+    @Test(timeOut = 10000)
+    public void testStop() throws Exception {
+        final TournamentScheduler scheduler = new TournamentScheduler(2, 4, index -> table());
+        final boolean[] completed = new boolean[1];
+        final Thread tournament = new Thread(() -> completed[0] = scheduler.play(Integer.MAX_VALUE, 0));
+        tournament.start();
+        while (scheduler.getTablesPlayed() < 10) {
+            Thread.sleep(1);
+        }
+
+        Assert.assertTrue(scheduler.stop(5, TimeUnit.SECONDS), "Tournament was in progress");
+        tournament.join();
+        Assert.assertFalse(completed[0], "Tournament should have been stopped");
+        final long played = scheduler.getTablesPlayed();
+        Thread.sleep(50);
+        Assert.assertEquals(scheduler.getTablesPlayed(), played, "No tables should be played once stopped");
+    }
+
+    @Test
+    public void testFailedTable() throws Exception {
+        final TournamentScheduler scheduler = new TournamentScheduler(2, 2, index -> {
+            if (index == 3) {
+                throw new IllegalStateException("Broken table");
+            }
+            return table();
+        });
+        Assert.assertFalse(scheduler.play(10, 0), "One of the tables failed");
+        Assert.assertEquals(scheduler.getTablesPlayed(), 9);
+        Assert.assertEquals(scheduler.getTablesFailed(), 1);
+    }
+
+    @Test(timeOut = 10000)
+    public void testInterruptedTable() throws Exception {
+        final TournamentScheduler scheduler = new TournamentScheduler(1, 1, index -> {
+            if (index == 3) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Table interrupted");
+            }
+            return table();
+        });
+        Assert.assertFalse(scheduler.play(100, 0), "Tournament should have been stopped");
+        Assert.assertEquals(scheduler.getTablesPlayed(), 3, "No tables should be started after the interrupt");
+        Assert.assertEquals(scheduler.getTablesFailed(), 1);
+    }
+
+    private static Engine table() {
+        final List<Player> players = Arrays.asList(new AlwaysCallingPlayer("p1"), new AlwaysCallingPlayer("p2"),
+                new AlwaysCallingPlayer("p3"));
+        return new Engine(players, CONFIG, RandomSource.splittable());
+    }
+}
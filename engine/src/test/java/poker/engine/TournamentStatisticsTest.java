@@ -0,0 +1,77 @@
+/*
+ * @(#) TournamentStatisticsTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.engine;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import poker.ConfigDTO;
+import poker.TableEvent;
+import poker.TableListener;
+import poker.engine.TournamentStatistics.Metric;
+import poker.player.michal.RandomPlayer;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class TournamentStatisticsTest {
+    private static final int TABLES = 300;
+
+    @Test(timeOut = 20000)
+    public void testStatisticsAddUp() throws Exception {
+        final TournamentStatistics statistics = new TournamentStatistics();
+        final AtomicLongArray hands = new AtomicLongArray(TournamentStatistics.BUCKETS);
+        final TournamentScheduler scheduler = new TournamentScheduler(4, 8, index -> {
+            final Engine engine = new Engine(Arrays.asList(new RandomPlayer("A/10/30"), new RandomPlayer("B/20/60"),
+                    new RandomPlayer("C/0/50")), new ConfigDTO(100, 20, true));
+            engine.registerObserver(statistics.table());
+            engine.registerObserver((TableListener) event -> {
+                if (event.getType() == TableEvent.Type.TABLE_CLOSED) {
+                    hands.incrementAndGet(TournamentStatistics.bucket(engine.getGamesPlayed()));
+                }
+            });
+            return engine;
+        });
+        Assert.assertTrue(scheduler.play(TABLES, 0), "All tables should have been played");
+
+        final Map<String, long[]> players = statistics.statistics();
+        Assert.assertEquals(players.keySet().size(), 3, "Every player should have statistics");
+        final long[] total = new long[Metric.values().length];
+        for (final Map.Entry<String, long[]> entry : players.entrySet()) {
+            final long[] metrics = entry.getValue();
+            for (int i = 0; i < total.length; i++) {
+                total[i] += metrics[i];
+            }
+            Assert.assertTrue(metrics[Metric.HANDS_WON.ordinal()] <= metrics[Metric.HANDS_PLAYED.ordinal()],
+                    entry.getKey() + " cannot win more hands than he played");
+            Assert.assertTrue(metrics[Metric.SHOWDOWNS.ordinal()] <= metrics[Metric.HANDS_PLAYED.ordinal()],
+                    entry.getKey() + " cannot go to more showdowns than he played hands");
+        }
+        Assert.assertEquals(total[Metric.TABLES_WON.ordinal()], TABLES, "Every table has a winner");
+        Assert.assertEquals(total[Metric.ELIMINATIONS.ordinal()], 2 * TABLES, "All but the winners are eliminated");
+        Assert.assertEquals(total[Metric.CHIPS_WON.ordinal()], total[Metric.CHIPS_LOST.ordinal()],
+                "Chips won should have been lost by the others");
+        Assert.assertTrue(total[Metric.FOLDS.ordinal()] > 0 && total[Metric.RAISES.ordinal()] > 0,
+                "Random players fold and raise");
+        final long won = statistics.get(Metric.TABLES_WON).values().stream().mapToLong(Long::longValue).sum();
+        Assert.assertEquals(won, TABLES, "A single metric should add up the same");
+
+        final long[] histogram = statistics.handsPerTable();
+        for (int bucket = 0; bucket < histogram.length; bucket++) {
+            Assert.assertEquals(histogram[bucket], hands.get(bucket), "Tables in bucket " + bucket);
+        }
+    }
+
+    @Test
+    public void testBucket() throws Exception {
+        Assert.assertEquals(TournamentStatistics.bucket(1), 0);
+        Assert.assertEquals(TournamentStatistics.bucket(2), 1);
+        Assert.assertEquals(TournamentStatistics.bucket(3), 1);
+        Assert.assertEquals(TournamentStatistics.bucket(4), 2);
+        Assert.assertEquals(TournamentStatistics.bucket(Integer.MAX_VALUE), TournamentStatistics.BUCKETS - 1);
+    }
+}
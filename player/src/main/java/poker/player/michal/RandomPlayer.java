@@ -68,12 +68,16 @@ public class RandomPlayer implements Player, TableListener, TerminationListener
 
     private MoveDTO doMakeMove(final PlayerStateDTO pi, final TableDTO table) {
         final int left = pi.getChipsLeft();
-        final int mb = currentConfig().getMaximumBet();
+        final int mb = table.getConfig().getMaximumBet();
         final int ctc = table.getChipsToCall();
         final int max = (mb > 0? Math.min(left, mb): left) - ctc;
 
         final int selector = ThreadLocalRandom.current().nextInt(100);
-        if (selector < foldProbability || max < 0) {
+        if (selector < foldProbability) {
+            return MoveDTO.FOLD;
+        } else if (ctc > left) {
+            return MoveDTO.ALL_IN;
+        } else if (max < 0) {
             return MoveDTO.FOLD;
         } else if (selector < foldProbability + callProbability || ctc == left || max == 0) {
             return MoveDTO.CALL;
@@ -82,6 +86,11 @@ public class RandomPlayer implements Player, TableListener, TerminationListener
         }
     }
 
+    @Override
+    public boolean isInterestedIn(final TableEvent.Type type) {
+        return false;
+    }
+
     @Override
     public void tableChanged(final TableEvent event) {
     }
@@ -44,9 +44,6 @@ public class PlayerScreeningTest {
 
     @BeforeClass
     public void setUp() throws Exception {
-        final TableListener tl = e -> {
-        };
-        tl.configChanged(cfg);
         deck = CardDTO.deck();
     }
 
@@ -115,7 +112,11 @@ public class PlayerScreeningTest {
         }
         final TableListener tl = (TableListener)o;
         tl.configChanged(cfg);
-        Assert.assertEquals(tl.currentConfig(), cfg, "Config returned by currentConfig should match the one passed through listener");
+        if (o instanceof Player) {
+            final MoveDTO move = ((Player)o).makeMove(new PlayerStateDTO(cards(2), INITIAL_CHIPS),
+                    new TableDTO(cards(0), 0, 0, cfg));
+            Assert.assertNotNull(move, "Player should move with the config of the table");
+        }
     }
 
     @Test(dataProvider = "classNamesDP")
@@ -134,13 +135,13 @@ public class PlayerScreeningTest {
             final int chipsLeft = rnd.nextInt(INITIAL_CHIPS);
             final boolean hc = rnd.nextBoolean();
             final PlayerStateDTO pi = new PlayerStateDTO(cards(hc? 0: 2), chipsLeft);
-            final TableDTO table = new TableDTO(cards(hc? 0: rnd.nextInt(6)), chipsToCall, chipsToCall);
+            final TableDTO table = new TableDTO(cards(hc? 0: rnd.nextInt(6)), chipsToCall, chipsToCall, config);
             final MoveDTO move = player.makeMove(pi, table);
 
             switch (move.getType()) {
             case ALL_IN:
                 Assert.assertTrue(table.getChipsToCall() > chipsLeft, "All in is only legal if player doesn't have enough chips to make another move");
-                Assert.fail("All in is not implemented in the current version of engine.");
+                break;
             case RAISE:
                 Assert.assertTrue(move.getChips() > 0, "Choose CALL if you want to raise with no chips");
             case CALL:
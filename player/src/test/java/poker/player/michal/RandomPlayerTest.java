@@ -47,9 +47,8 @@ public class RandomPlayerTest {
     @Test(dataProvider = "probabilitiesDP")
     public void testCounter(final int foldP, final int callP, final int raiseP) throws Exception {
         final RandomPlayer rp = new RandomPlayer("rp/" + foldP + "/" + callP);
-        rp.configChanged(CONFIG);
         final PlayerStateDTO pi = new PlayerStateDTO(new ArrayList<>(), 10000);
-        final TableDTO table = new TableDTO(new ArrayList<>(), 0, 0);
+        final TableDTO table = new TableDTO(new ArrayList<>(), 0, 0, CONFIG);
         for (int i = 0; i < MAX_MOVES; i++) {
             counters.get(rp.makeMove(pi, table).getType()).incrementAndGet();
         }
@@ -0,0 +1,113 @@
+/*
+ * @(#) Combinations.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+/**
+ * Iterates over the k-card combinations of a part of an array of cards in lexicographic order of their positions,
+ * keeping the bit mask of the current combination (laid out as in {@link poker.CardSet}) up to date.  Nothing is
+ * allocated after construction, so one instance serves any number of passes.
+ * <pre>
+ *     final Combinations boards = new Combinations(cards, 5);
+ *     for (boards.reset(0); boards.next(); ) {
+ *         ... boards.bits() ...
+ *     }
+ * </pre>
+ *
+ * @version created on 2014-07-22, 20:05
+ */
+final class Combinations {
+    private final int[] cards;
+    private final int k;
+    private final int[] at;
+    /**
+     * bits of the first i cards of the combination at i + 1; at 0 there are none
+     */
+    private final long[] prefix;
+    private boolean started;
+
+    /**
+     * @param cards deck indices of the cards to choose from
+     * @param k     number of cards in a combination
+     */
+    Combinations(final int[] cards, final int k) {
+        if (k < 0 || k > cards.length) {
+            throw new IllegalArgumentException("Cannot choose " + k + " out of " + cards.length + " cards");
+        }
+        this.cards = cards;
+        this.k = k;
+        at = new int[k];
+        prefix = new long[k + 1];
+        reset(0);
+    }
+
+    /**
+     * Starts a pass over the combinations of the cards from position {@code from} on.
+     */
+    void reset(final int from) {
+        for (int i = 0; i < k; i++) {
+            at[i] = from + i - 1;
+        }
+        started = false;
+    }
+
+    /**
+     * Moves to the next combination.
+     *
+     * @return false if there are no more combinations
+     */
+    boolean next() {
+        if (!started) {
+            started = true;
+            if (k == 0) {
+                return true;
+            }
+            if (at[k - 1] + 1 >= cards.length) {
+                return false;
+            }
+            fill(0, at[0] + 1);
+            return true;
+        }
+        int i = k - 1;
+        while (i >= 0 && at[i] == cards.length - k + i) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+        fill(i, at[i] + 1);
+        return true;
+    }
+
+    /**
+     * Places the i-th and the following cards of the combination at consecutive positions starting from {@code
+     * position}.
+     */
+    private void fill(final int i, final int position) {
+        for (int j = i; j < k; j++) {
+            at[j] = position + j - i;
+            prefix[j + 1] = prefix[j] | 1L << cards[at[j]];
+        }
+    }
+
+    /**
+     * @return bit mask of the cards of the current combination
+     */
+    long bits() {
+        return prefix[k];
+    }
+
+    /**
+     * @return number of k-card combinations out of n
+     */
+    static long count(final int n, final int k) {
+        long rv = 1;
+        for (int i = 0; i < k; i++) {
+            rv = rv * (n - i) / (i + 1);
+        }
+        return rv;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * @(#) ConcurrentLruCache.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Cache of values by {@code long} keys holding at most a given number of them.  The keys are spread between segments,
+ * each an access ordered {@link LinkedHashMap} with its own lock which evicts its least recently used value when full,
+ * so threads contend only when their keys fall into the same segment.
+ * <p/>
+ * A missing value is computed outside of the lock: two threads missing the same key at once may both compute it, and
+ * the value stored first is returned to both.
+ *
+ * @version created on 2014-07-26, 18:00
+ */
+final class ConcurrentLruCache<V> {
+    private final Segment<V>[] segments;
+    private final int shift;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity    maximum number of values, divided between the segments as evenly as possible
+     * @param concurrency number of segments, rounded up to a power of two but no more than the capacity (rounded down
+     *                    to a power of two), so each segment holds at least one value
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ConcurrentLruCache(final int capacity, final int concurrency) {
+        if (capacity < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("Capacity and concurrency have to be positive");
+        }
+        final int bits = Math.min(32 - Integer.numberOfLeadingZeros(concurrency - 1),
+                31 - Integer.numberOfLeadingZeros(capacity));
+        segments = new Segment[1 << bits];
+        shift = 64 - bits;
+        for (int i = 0; i < segments.length; i++) {
+            // the remainder goes one by one to the first segments
+            segments[i] = new Segment<>((capacity >> bits) + (i < (capacity & segments.length - 1)? 1: 0));
+        }
+    }
+
+    /**
+     * @return the value cached for the key or computed for it when missing
+     */
+    V get(final long key, final LongFunction<? extends V> compute) {
+        final Segment<V> segment = segment(key);
+        V rv;
+        synchronized (segment) {
+            rv = segment.get(key);
+        }
+        if (rv != null) {
+            hits.increment();
+            return rv;
+        }
+        misses.increment();
+        final V computed = compute.apply(key);
+        synchronized (segment) {
+            rv = segment.putIfAbsent(key, computed);
+        }
+        return rv != null? rv: computed;
+    }
+
+    int size() {
+        int rv = 0;
+        for (final Segment<V> segment : segments) {
+            synchronized (segment) {
+                rv += segment.size();
+            }
+        }
+        return rv;
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    private Segment<V> segment(final long key) {
+        // the high bits of the Fibonacci hash, as the low bits of the keys vary little
+        return segments.length == 1? segments[0]: segments[(int)(key * 0x9E3779B97F4A7C15L >>> shift)];
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Segment<V> extends LinkedHashMap<Long, V> {
+        private final int capacity;
+
+        private Segment(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Long, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
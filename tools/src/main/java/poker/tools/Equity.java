@@ -0,0 +1,79 @@
+/*
+ * @(#) Equity.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+/**
+ * Share of the pot a hand can expect against its opponents, with how often it wins the pot alone, splits it and loses
+ * it.  A split between k players counts as 1/k of the pot; the equity is the sum of those shares over the showdowns
+ * divided by their number.
+ * <p/>
+ * For equity estimated by sampling (see {@link EquityCalculator}) the standard error tells its precision; for equity
+ * computed exactly it's 0.
+ *
+ * @version created on 2014-07-20, 11:15
+ */
+public final class Equity {
+    private final long showdowns;
+    private final long wins;
+    private final long ties;
+    private final double equity;
+    private final double standardError;
+
+    public Equity(final long showdowns, final long wins, final long ties, final double equity,
+                  final double standardError) {
+        this.showdowns = showdowns;
+        this.wins = wins;
+        this.ties = ties;
+        this.equity = equity;
+        this.standardError = standardError;
+    }
+
+    /**
+     * @return number of showdowns sampled or enumerated
+     */
+    public long getShowdowns() {
+        return showdowns;
+    }
+
+    /**
+     * @return probability of winning the whole pot
+     */
+    public double getWin() {
+        return (double)wins / showdowns;
+    }
+
+    /**
+     * @return probability of splitting the pot
+     */
+    public double getTie() {
+        return (double)ties / showdowns;
+    }
+
+    /**
+     * @return probability of losing the pot
+     */
+    public double getLoss() {
+        return (double)(showdowns - wins - ties) / showdowns;
+    }
+
+    /**
+     * @return expected share of the pot
+     */
+    public double getEquity() {
+        return equity;
+    }
+
+    public double getStandardError() {
+        return standardError;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Equity{%.4f +- %.4f, win=%.4f, tie=%.4f, loss=%.4f, showdowns=%d}", equity,
+                standardError, getWin(), getTie(), getLoss(), showdowns);
+    }
+}
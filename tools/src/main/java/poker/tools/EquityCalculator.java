@@ -0,0 +1,254 @@
+/*
+ * @(#) EquityCalculator.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+import poker.CardSet;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Monte Carlo estimate of the {@link Equity} of two hole cards against a number of opponents with random cards, given
+ * the community cards known so far and the cards known to be out of the deck (dead).  The unknown cards are drawn from
+ * the rest of the deck, the board is completed and all the hands are ranked by {@link HandRanker}.
+ * <p/>
+ * The showdowns are split between fork-join tasks, each with its own {@link SplittableRandom} split off the calculator's
+ * in a tree which depends only on the number of showdowns, so a calculator created with a seed gives the same results
+ * however the tasks are scheduled.  A task draws the cards by a partial Fisher-Yates shuffle of its own array of the
+ * remaining deck and nothing is allocated per showdown.
+ * <p/>
+ * Thread-safe.
+ *
+ * @version created on 2014-07-20, 11:40
+ */
+public final class EquityCalculator {
+    /**
+     * showdowns played by a task without splitting it further
+     */
+    static final int CHUNK = 1 << 13;
+    /**
+     * showdowns sampled first when sampling until a target precision
+     */
+    static final int FIRST_ROUND = 1 << 14;
+
+    private static final int BOARD = 5;
+
+    private final ForkJoinPool pool;
+    private final SplittableRandom rnd;
+
+    /**
+     * Calculator with unpredictable results, running in the common pool.
+     */
+    public EquityCalculator() {
+        this(ForkJoinPool.commonPool(), new SplittableRandom());
+    }
+
+    /**
+     * @param seed seed of the random cards, calculators with the same seed give the same results for the same calls
+     */
+    public EquityCalculator(final ForkJoinPool pool, final long seed) {
+        this(pool, new SplittableRandom(seed));
+    }
+
+    private EquityCalculator(final ForkJoinPool pool, final SplittableRandom rnd) {
+        this.pool = pool;
+        this.rnd = rnd;
+    }
+
+    /**
+     * @param hole      the two cards of the player
+     * @param board     community cards known so far, at most 5
+     * @param dead      other cards out of the deck, e.g. folded by players who showed them
+     * @param opponents number of opponents with unknown cards
+     * @param showdowns number of showdowns to sample
+     *
+     * @return equity estimated from the number of showdowns
+     *
+     * @throws IllegalArgumentException if the cards overlap or there are too few left to deal
+     */
+    public Equity calculate(final CardSet hole, final CardSet board, final CardSet dead, final int opponents,
+                            final long showdowns) {
+        final Deal deal = new Deal(hole, board, dead, opponents);
+        if (showdowns < 1) {
+            throw new IllegalArgumentException("At least one showdown has to be sampled, got " + showdowns);
+        }
+        return sample(deal, showdowns).toEquity();
+    }
+
+    /**
+     * Samples showdowns in rounds until the standard error of the equity drops to the target or the number of showdowns
+     * reaches the limit.  The first round has {@value #FIRST_ROUND} showdowns, each next one as many as the variance
+     * seen so far suggests are missing, but at least as many as were sampled already.
+     *
+     * @param standardError target standard error of the equity, e.g. 0.001
+     * @param maxShowdowns  limit of the showdowns sampled
+     *
+     * @see #calculate(CardSet, CardSet, CardSet, int, long)
+     */
+    public Equity calculate(final CardSet hole, final CardSet board, final CardSet dead, final int opponents,
+                            final double standardError, final long maxShowdowns) {
+        final Deal deal = new Deal(hole, board, dead, opponents);
+        if (standardError <= 0 || maxShowdowns < 1) {
+            throw new IllegalArgumentException("Target error and the limit of showdowns have to be positive");
+        }
+        final Tally tally = sample(deal, Math.min(FIRST_ROUND, maxShowdowns));
+        while (tally.showdowns < maxShowdowns && tally.standardError() > standardError) {
+            final double needed = tally.variance() / (standardError * standardError);
+            final long more = Math.max((long)Math.ceil(needed) - tally.showdowns, tally.showdowns);
+            tally.add(sample(deal, Math.min(more, maxShowdowns - tally.showdowns)));
+        }
+        return tally.toEquity();
+    }
+
+    private Tally sample(final Deal deal, final long showdowns) {
+        final SplittableRandom split;
+        synchronized (rnd) {
+            split = rnd.split();
+        }
+        return pool.invoke(new Sampler(deal, showdowns, split));
+    }
+
+    /**
+     * The known cards and the cards left to deal.
+     */
+    private static final class Deal {
+        private final long hole;
+        private final long board;
+        private final int[] deck;
+        private final int missing;
+        private final int opponents;
+
+        private Deal(final CardSet hole, final CardSet board, final CardSet dead, final int opponents) {
+            if (hole.size() != 2 || board.size() > BOARD || opponents < 1) {
+                throw new IllegalArgumentException("Two hole cards, at most " + BOARD
+                        + " community cards and at least one opponent are needed");
+            }
+            if (hole.intersects(board) || hole.intersects(dead) || board.intersects(dead)) {
+                throw new IllegalArgumentException("Hole cards " + hole + ", board " + board + " and dead cards " + dead
+                        + " overlap");
+            }
+            this.hole = hole.bits();
+            this.board = board.bits();
+            this.opponents = opponents;
+            missing = BOARD - board.size();
+            final long left = CardSet.ALL_BITS & ~(this.hole | this.board | dead.bits());
+            if (Long.bitCount(left) < missing + 2 * opponents) {
+                throw new IllegalArgumentException("Not enough cards left for " + opponents + " opponents");
+            }
+            deck = new int[Long.bitCount(left)];
+            int i = 0;
+            for (long bits = left; bits != 0; bits &= bits - 1) {
+                deck[i++] = Long.numberOfTrailingZeros(bits);
+            }
+        }
+    }
+
+    private static final class Sampler extends RecursiveTask<Tally> {
+        private final Deal deal;
+        private final long showdowns;
+        private final SplittableRandom rnd;
+
+        private Sampler(final Deal deal, final long showdowns, final SplittableRandom rnd) {
+            this.deal = deal;
+            this.showdowns = showdowns;
+            this.rnd = rnd;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (showdowns > CHUNK) {
+                final Sampler first = new Sampler(deal, showdowns / 2, rnd.split());
+                first.fork();
+                final Tally rv = new Sampler(deal, showdowns - showdowns / 2, rnd).compute();
+                rv.add(first.join());
+                return rv;
+            }
+            final Tally rv = new Tally();
+            final int[] deck = deal.deck.clone();
+            for (long i = 0; i < showdowns; i++) {
+                int drawn = 0;
+                long board = deal.board;
+                for (int card = 0; card < deal.missing; card++) {
+                    board |= 1L << draw(deck, drawn++);
+                }
+                final int rank = HandRanker.rank(deal.hole | board);
+                int tied = 0;
+                boolean lost = false;
+                for (int opponent = 0; opponent < deal.opponents && !lost; opponent++) {
+                    final long cards = 1L << draw(deck, drawn++) | 1L << draw(deck, drawn++);
+                    final int other = HandRanker.rank(cards | board);
+                    lost = other > rank;
+                    tied += other == rank? 1: 0;
+                }
+                rv.add(lost? -1: tied);
+            }
+            return rv;
+        }
+
+        /**
+         * @return a card from the part of the deck not drawn yet, which is moved to the drawn part
+         */
+        private int draw(final int[] deck, final int drawn) {
+            final int pick = drawn + rnd.nextInt(deck.length - drawn);
+            final int card = deck[pick];
+            deck[pick] = deck[drawn];
+            deck[drawn] = card;
+            return card;
+        }
+    }
+
+    private static final class Tally {
+        private long showdowns;
+        private long wins;
+        private long ties;
+        private double shares;
+        private double squares;
+
+        /**
+         * @param tied number of opponents tied with, -1 if the pot is lost
+         */
+        private void add(final int tied) {
+            showdowns++;
+            if (tied < 0) {
+                return;
+            }
+            final double share = 1.0 / (tied + 1);
+            if (tied == 0) {
+                wins++;
+            } else {
+                ties++;
+            }
+            shares += share;
+            squares += share * share;
+        }
+
+        private void add(final Tally other) {
+            showdowns += other.showdowns;
+            wins += other.wins;
+            ties += other.ties;
+            shares += other.shares;
+            squares += other.squares;
+        }
+
+        /**
+         * @return variance of the share of the pot in a showdown
+         */
+        private double variance() {
+            final double mean = shares / showdowns;
+            return Math.max(squares / showdowns - mean * mean, 0) * showdowns / Math.max(showdowns - 1, 1);
+        }
+
+        private double standardError() {
+            return Math.sqrt(variance() / showdowns);
+        }
+
+        private Equity toEquity() {
+            return new Equity(showdowns, wins, ties, shares / showdowns, standardError());
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * @(#) EquityEnumerator.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+import poker.CardSet;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Exact {@link Equity} by enumerating every completion of the board, and every holding of the opponent when his cards
+ * are unknown, where {@link EquityCalculator sampling} would be wasteful: heads-up, and on the turn or the river when
+ * there are few runouts left.  Preflop, two known hands are dealt all the C(48, 5) = 1,712,304 boards.
+ * <p/>
+ * The combinations are walked by allocation-free {@link Combinations} and the work is split between fork-join tasks by
+ * the first card enumerated, which is the lowest card of the runout (or of the opponent's holding).
+ * <p/>
+ * Thread-safe.
+ *
+ * @version created on 2014-07-22, 20:40
+ */
+public final class EquityEnumerator {
+    private static final int BOARD = 5;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Enumerator running in the common pool.
+     */
+    public EquityEnumerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public EquityEnumerator(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param hands hole cards of each player
+     * @param board community cards known so far, at most 5
+     * @param dead  other cards out of the deck
+     *
+     * @return equity of each hand over all the completions of the board
+     *
+     * @throws IllegalArgumentException if the cards overlap or there are too few left to complete the board
+     */
+    public Equity[] enumerate(final List<CardSet> hands, final CardSet board, final CardSet dead) {
+        if (hands.size() < 2) {
+            throw new IllegalArgumentException("At least two hands are needed, got " + hands.size());
+        }
+        final long[] holes = new long[hands.size()];
+        long known = check(board, dead);
+        for (int i = 0; i < holes.length; i++) {
+            holes[i] = hands.get(i).bits();
+            if (hands.get(i).size() != 2 || (holes[i] & known) != 0) {
+                throw new IllegalArgumentException("Hand " + hands.get(i) + " is not two cards or overlaps others");
+            }
+            known |= holes[i];
+        }
+        final Showdowns showdowns = new Showdowns(holes, board.bits(), BOARD - board.size(), deck(known), false);
+        return showdowns.run(pool).toEquities();
+    }
+
+    /**
+     * @param hole  the two cards of the player
+     * @param board community cards known so far, at most 5
+     * @param dead  other cards out of the deck
+     *
+     * @return equity of the hand against every holding of a single opponent, over all the completions of the board
+     *
+     * @throws IllegalArgumentException if the cards overlap or there are too few left to deal
+     */
+    public Equity enumerate(final CardSet hole, final CardSet board, final CardSet dead) {
+        final long known = check(board, dead);
+        if (hole.size() != 2 || (hole.bits() & known) != 0) {
+            throw new IllegalArgumentException("Hand " + hole + " is not two cards or overlaps others");
+        }
+        final Showdowns showdowns = new Showdowns(new long[] {hole.bits(), 0}, board.bits(), BOARD - board.size(),
+                deck(known | hole.bits()), true);
+        return showdowns.run(pool).toEquities()[0];
+    }
+
+    /**
+     * @return the known cards
+     */
+    private static long check(final CardSet board, final CardSet dead) {
+        if (board.size() > BOARD || board.intersects(dead)) {
+            throw new IllegalArgumentException("Board " + board + " has more than " + BOARD
+                    + " cards or overlaps dead cards " + dead);
+        }
+        return board.bits() | dead.bits();
+    }
+
+    /**
+     * @return deck indices of the cards which are not known
+     */
+    private static int[] deck(final long known) {
+        final long left = CardSet.ALL_BITS & ~known;
+        final int[] rv = new int[Long.bitCount(left)];
+        int i = 0;
+        for (long bits = left; bits != 0; bits &= bits - 1) {
+            rv[i++] = Long.numberOfTrailingZeros(bits);
+        }
+        return rv;
+    }
+
+    /**
+     * All the showdowns of a matchup, by the first card enumerated.
+     */
+    private static final class Showdowns {
+        private final long[] holes;
+        private final long board;
+        private final int missing;
+        private final int[] deck;
+        /**
+         * the last hand is the opponent's, dealt from the deck
+         */
+        private final boolean opponent;
+
+        private Showdowns(final long[] holes, final long board, final int missing, final int[] deck,
+                          final boolean opponent) {
+            if (deck.length < missing + (opponent? 2: 0)) {
+                throw new IllegalArgumentException("Not enough cards left to deal");
+            }
+            this.holes = holes;
+            this.board = board;
+            this.missing = missing;
+            this.deck = deck;
+            this.opponent = opponent;
+        }
+
+        private Tally run(final ForkJoinPool pool) {
+            if (!opponent && missing == 0) {
+                final Tally rv = new Tally(holes.length);
+                rv.add(holes, board, new int[holes.length]);
+                return rv;
+            }
+            // positions of the first card such that the rest can follow it
+            final int firsts = deck.length - (opponent? 2: missing) + 1;
+            return pool.invoke(new Task(this, 0, firsts));
+        }
+
+        /**
+         * Plays the showdowns with the card at the position as the first one enumerated.
+         */
+        private Tally first(final int position) {
+            final Tally rv = new Tally(holes.length);
+            final long[] hands = holes.clone();
+            final int[] ranks = new int[hands.length];
+            if (!opponent) {
+                final Combinations rest = new Combinations(deck, missing - 1);
+                final long first = board | 1L << deck[position];
+                for (rest.reset(position + 1); rest.next(); ) {
+                    rv.add(hands, first | rest.bits(), ranks);
+                }
+                return rv;
+            }
+            // the opponent's first card at the position, his second and the board out of the rest
+            final int[] others = new int[deck.length - 2];
+            final Combinations boards = new Combinations(others, missing);
+            for (int second = position + 1; second < deck.length; second++) {
+                int n = 0;
+                for (int i = 0; i < deck.length; i++) {
+                    if (i != position && i != second) {
+                        others[n++] = deck[i];
+                    }
+                }
+                hands[hands.length - 1] = 1L << deck[position] | 1L << deck[second];
+                for (boards.reset(0); boards.next(); ) {
+                    rv.add(hands, board | boards.bits(), ranks);
+                }
+            }
+            return rv;
+        }
+    }
+
+    private static final class Task extends RecursiveTask<Tally> {
+        private final Showdowns showdowns;
+        private final int from;
+        private final int to;
+
+        private Task(final Showdowns showdowns, final int from, final int to) {
+            this.showdowns = showdowns;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from == 1) {
+                return showdowns.first(from);
+            }
+            final int middle = (from + to) >>> 1;
+            final Task second = new Task(showdowns, middle, to);
+            second.fork();
+            final Tally rv = new Task(showdowns, from, middle).compute();
+            rv.add(second.join());
+            return rv;
+        }
+    }
+
+    private static final class Tally {
+        private long showdowns;
+        private final long[] wins;
+        private final long[] ties;
+        private final double[] shares;
+
+        private Tally(final int players) {
+            wins = new long[players];
+            ties = new long[players];
+            shares = new double[players];
+        }
+
+        private void add(final long[] hands, final long board, final int[] ranks) {
+            showdowns++;
+            int best = -1;
+            int winners = 0;
+            for (int i = 0; i < hands.length; i++) {
+                ranks[i] = HandRanker.rank(hands[i] | board);
+                if (ranks[i] > best) {
+                    best = ranks[i];
+                    winners = 1;
+                } else if (ranks[i] == best) {
+                    winners++;
+                }
+            }
+            for (int i = 0; i < hands.length; i++) {
+                if (ranks[i] == best) {
+                    if (winners == 1) {
+                        wins[i]++;
+                    } else {
+                        ties[i]++;
+                    }
+                    shares[i] += 1.0 / winners;
+                }
+            }
+        }
+
+        private void add(final Tally other) {
+            showdowns += other.showdowns;
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] += other.wins[i];
+                ties[i] += other.ties[i];
+                shares[i] += other.shares[i];
+            }
+        }
+
+        private Equity[] toEquities() {
+            final Equity[] rv = new Equity[wins.length];
+            for (int i = 0; i < rv.length; i++) {
+                rv[i] = new Equity(showdowns, wins[i], ties[i], shares[i] / showdowns, 0);
+            }
+            return rv;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * @(#) HandRanker.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+import poker.CardDTO;
+import poker.CardSet;
+
+import java.util.List;
+
+/**
+ * Table driven evaluator mapping any set of 5, 6 or 7 cards directly to a single {@code int} strength.  The larger the
+ * returned value, the better the hand; two sets of cards of equal strength (a split pot) evaluate to the same value.
+ * <p/>
+ * Cards are passed as a bit mask laid out as in {@link CardSet}: the card with deck index {@code i} (see {@link
+ * CardDTO#deck()}) sets the bit {@code 1L << i}, so each suit occupies 13 consecutive bits starting from clubs.  All
+ * per-suit and per-rank work is done on 13-bit rank masks with the help of tables precomputed for all 8192 masks,
+ * which makes the evaluation allocation-free and independent of the order of the cards.
+ * <p/>
+ * The strength is laid out as {@code category << 20} followed by up to five 4-bit ranks (ordinal of {@link
+ * CardDTO.Value}) deciding between hands of the same category, most significant first.
+ *
+ * @version created on 2014-06-01, 10:12
+ */
+public final class HandRanker {
+    public static final int HIGH_CARD = 0;
+    public static final int ONE_PAIR = 1;
+    public static final int TWO_PAIRS = 2;
+    public static final int THREE_OF_A_KIND = 3;
+    public static final int STRAIGHT = 4;
+    public static final int FLUSH = 5;
+    public static final int FULL_HOUSE = 6;
+    public static final int FOUR_OF_A_KIND = 7;
+    public static final int STRAIGHT_FLUSH = 8;
+
+    private static final int CATEGORY_SHIFT = 20;
+    private static final int RANKS = CardSet.RANKS;
+    private static final int RANK_MASK = (1 << RANKS) - 1;
+    private static final int ACE = RANKS - 1;
+
+    /**
+     * For each rank mask: the rank of the highest card of the best straight in the mask plus one, or 0 if the mask
+     * contains no straight.  The wheel (5 4 3 2 A) is a straight with the five as the highest card.
+     */
+    private static final byte[] STRAIGHT_HIGH = new byte[1 << RANKS];
+
+    /**
+     * For each rank mask: ranks of its (up to) five highest cards packed in 4-bit nibbles, highest first, aligned so
+     * that the highest card occupies bits 16-19.
+     */
+    private static final int[] TOP_FIVE = new int[1 << RANKS];
+
+    static {
+        for (int mask = 0; mask < 1 << RANKS; mask++) {
+            int packed = 0;
+            int taken = 0;
+            for (int rank = ACE; rank >= 0 && taken < 5; rank--) {
+                if ((mask & (1 << rank)) != 0) {
+                    packed |= rank << (4 * (4 - taken));
+                    taken++;
+                }
+            }
+            TOP_FIVE[mask] = packed;
+
+            for (int high = ACE; high >= 3; high--) {
+                final int run = high == 3? 0b1_0000_0000_1111: 0b1_1111 << (high - 4);
+                if ((mask & run) == run) {
+                    STRAIGHT_HIGH[mask] = (byte)(high + 1);
+                    break;
+                }
+            }
+        }
+    }
+
+    private HandRanker() {
+    }
+
+    /**
+     * @param cards 5 to 7 cards; a card may repeat when dealt from more than one deck, and counts as many times as it
+     *              is in the list (so two aces of spades make a pair)
+     *
+     * @return the strength of the best 5-card hand which can be made out of the {@code cards}
+     */
+    public static int rank(final List<CardDTO> cards) {
+        final long bits = CardSet.bits(cards);
+        return Long.bitCount(bits) == cards.size()? rank(bits): rankRepeated(cards);
+    }
+
+    /**
+     * @param cards 5 to 7 distinct cards
+     *
+     * @return the strength of the best 5-card hand which can be made out of the {@code cards}
+     */
+    public static int rank(final CardSet cards) {
+        return rank(cards.bits());
+    }
+
+    /**
+     * @param cards bit mask of 5 to 7 distinct cards (as returned by {@link CardSet#bits()})
+     *
+     * @return the strength of the best 5-card hand which can be made out of the {@code cards}
+     */
+    public static int rank(final long cards) {
+        final int clubs = (int)cards & RANK_MASK;
+        final int diamonds = (int)(cards >>> RANKS) & RANK_MASK;
+        final int hearts = (int)(cards >>> 2 * RANKS) & RANK_MASK;
+        final int spades = (int)(cards >>> 3 * RANKS) & RANK_MASK;
+
+        final int ranks = clubs | diamonds | hearts | spades;
+        final int distinct = Integer.bitCount(ranks);
+        final int duplicates = Long.bitCount(cards) - distinct;
+
+        int flushOrStraight = 0;
+        if (distinct >= 5) {
+            final int suited = flushSuit(clubs, diamonds, hearts, spades);
+            if (suited != 0) {
+                final int high = STRAIGHT_HIGH[suited];
+                if (high != 0) {
+                    return hand(STRAIGHT_FLUSH, (high - 1) << 16);
+                }
+                flushOrStraight = hand(FLUSH, TOP_FIVE[suited]);
+            } else {
+                final int high = STRAIGHT_HIGH[ranks];
+                if (high != 0) {
+                    flushOrStraight = hand(STRAIGHT, (high - 1) << 16);
+                }
+            }
+            // with less than 3 duplicated ranks neither four of a kind nor full house is possible
+            if (flushOrStraight != 0 && duplicates < 3) {
+                return flushOrStraight;
+            }
+        }
+
+        switch (duplicates) {
+        case 0:
+            return hand(HIGH_CARD, TOP_FIVE[ranks]);
+        case 1: {
+            final int pair = ranks ^ (clubs ^ diamonds ^ hearts ^ spades);
+            return hand(ONE_PAIR, top(pair) << 16 | (TOP_FIVE[ranks ^ pair] >>> 4) & 0xFFF0);
+        }
+        case 2: {
+            final int pairs = ranks ^ (clubs ^ diamonds ^ hearts ^ spades);
+            if (pairs != 0) {
+                final int kickers = ranks ^ pairs;
+                return hand(TWO_PAIRS, (TOP_FIVE[pairs] & 0xFF000) | top(kickers) << 8);
+            }
+            final int three = threeOfAKind(clubs, diamonds, hearts, spades);
+            return hand(THREE_OF_A_KIND, top(three) << 16 | (TOP_FIVE[ranks ^ three] >>> 4) & 0xFF00);
+        }
+        default: {
+            final int four = clubs & diamonds & hearts & spades;
+            if (four != 0) {
+                return hand(FOUR_OF_A_KIND, top(four) << 16 | top(ranks ^ four) << 12);
+            }
+            final int pairs = ranks ^ (clubs ^ diamonds ^ hearts ^ spades);
+            if (Integer.bitCount(pairs) != duplicates) {
+                // there are some trips then, which with at least 3 duplicates means full house
+                final int three = threeOfAKind(clubs, diamonds, hearts, spades);
+                final int topThree = top(three);
+                return hand(FULL_HOUSE, topThree << 16 | top((pairs | three) ^ (1 << topThree)) << 12);
+            }
+            if (flushOrStraight != 0) {
+                return flushOrStraight;
+            }
+            final int bestPairs = TOP_FIVE[pairs] & 0xFF000;
+            final int kickers = ranks ^ (1 << (bestPairs >>> 16)) ^ (1 << ((bestPairs >>> 12) & 0xF));
+            return hand(TWO_PAIRS, bestPairs | top(kickers) << 8);
+        }
+        }
+    }
+
+    /**
+     * Ranks cards with repeats by counting them; slower than the masks, but only a dealer with more decks than one
+     * needs it.  Five of a kind, which only repeats make, counts as four of a kind with the fifth card as the kicker.
+     */
+    static int rankRepeated(final List<CardDTO> cards) {
+        final int[] counts = new int[RANKS];
+        final int[][] suitCounts = new int[4][RANKS];
+        final int[] suitSizes = new int[4];
+        final int[] suits = new int[4];
+        for (final CardDTO card : cards) {
+            final int rank = card.getValue().ordinal();
+            final int suit = card.getSuit().ordinal();
+            counts[rank]++;
+            suitCounts[suit][rank]++;
+            suitSizes[suit]++;
+            suits[suit] |= 1 << rank;
+        }
+
+        int flush = 0;
+        for (int suit = 0; suit < suits.length; suit++) {
+            if (suitSizes[suit] >= 5) {
+                final int high = STRAIGHT_HIGH[suits[suit]];
+                if (high != 0) {
+                    return hand(STRAIGHT_FLUSH, (high - 1) << 16);
+                }
+                flush = Math.max(flush, hand(FLUSH, kickers(suitCounts[suit].clone(), 5)));
+            }
+        }
+        final int four = highest(counts, 4, -1);
+        if (four >= 0) {
+            counts[four] -= 4;
+            return hand(FOUR_OF_A_KIND, four << 16 | kickers(counts, 1) >>> 4);
+        }
+        final int three = highest(counts, 3, -1);
+        final int pair = highest(counts, 2, three);
+        if (three >= 0 && pair >= 0) {
+            return hand(FULL_HOUSE, three << 16 | pair << 12);
+        }
+        if (flush != 0) {
+            return flush;
+        }
+        final int high = STRAIGHT_HIGH[suits[0] | suits[1] | suits[2] | suits[3]];
+        if (high != 0) {
+            return hand(STRAIGHT, (high - 1) << 16);
+        }
+        if (three >= 0) {
+            counts[three] -= 3;
+            return hand(THREE_OF_A_KIND, three << 16 | kickers(counts, 2) >>> 4);
+        }
+        if (pair >= 0) {
+            counts[pair] -= 2;
+            final int second = highest(counts, 2, -1);
+            if (second >= 0) {
+                counts[second] -= 2;
+                return hand(TWO_PAIRS, pair << 16 | second << 12 | kickers(counts, 1) >>> 8);
+            }
+            return hand(ONE_PAIR, pair << 16 | kickers(counts, 3) >>> 4);
+        }
+        return hand(HIGH_CARD, kickers(counts, 5));
+    }
+
+    /**
+     * @return the highest rank counted at least {@code count} times other than {@code except}, or -1
+     */
+    private static int highest(final int[] counts, final int count, final int except) {
+        for (int rank = ACE; rank >= 0; rank--) {
+            if (counts[rank] >= count && rank != except) {
+                return rank;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the {@code n} highest of the counted ranks packed as in {@link #TOP_FIVE}, highest at bits 16-19
+     */
+    private static int kickers(final int[] counts, final int n) {
+        int packed = 0;
+        int taken = 0;
+        for (int rank = ACE; rank >= 0 && taken < n; rank--) {
+            for (int i = 0; i < counts[rank] && taken < n; i++) {
+                packed |= rank << (4 * (4 - taken));
+                taken++;
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * @return the category of the hand (one of {@link #HIGH_CARD} ... {@link #STRAIGHT_FLUSH}) for a given strength
+     */
+    public static int category(final int rank) {
+        return rank >>> CATEGORY_SHIFT;
+    }
+
+    private static int hand(final int category, final int ranks) {
+        return category << CATEGORY_SHIFT | ranks;
+    }
+
+    private static int top(final int mask) {
+        return 31 - Integer.numberOfLeadingZeros(mask);
+    }
+
+    private static int threeOfAKind(final int clubs, final int diamonds, final int hearts, final int spades) {
+        return ((clubs & diamonds) | (hearts & spades)) & ((clubs & hearts) | (diamonds & spades));
+    }
+
+    private static int flushSuit(final int clubs, final int diamonds, final int hearts, final int spades) {
+        if (Integer.bitCount(clubs) >= 5) {
+            return clubs;
+        }
+        if (Integer.bitCount(diamonds) >= 5) {
+            return diamonds;
+        }
+        if (Integer.bitCount(hearts) >= 5) {
+            return hearts;
+        }
+        if (Integer.bitCount(spades) >= 5) {
+            return spades;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * @(#) HandStrengthCache.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+import poker.CardSet;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ranks and equities of hole cards with a board, shared by all the players using the same instance (e.g. one per JVM)
+ * and cached by their {@link SuitIsomorphism} keys, so the hands differing by the suits only are evaluated once.  The
+ * cache holds at most a given number of hands, evicting the least recently used ones (see {@link
+ * ConcurrentLruCache}).
+ * <p/>
+ * The equities missing are sampled by the {@link EquityCalculator}; for a plain preflop equity without the split into
+ * wins and ties, {@link PreflopEquity} is faster still.
+ * <p/>
+ * Thread-safe.
+ *
+ * @version created on 2014-07-26, 18:40
+ */
+public final class HandStrengthCache {
+    private static final int UNKNOWN = -1;
+
+    private final ConcurrentLruCache<Strength> cache;
+    private final EquityCalculator calculator;
+    private final long showdowns;
+
+    /**
+     * @param capacity   maximum number of hands cached
+     * @param calculator calculator of the equities missing
+     * @param showdowns  number of showdowns sampled for an equity
+     */
+    public HandStrengthCache(final int capacity, final EquityCalculator calculator, final long showdowns) {
+        this.cache = new ConcurrentLruCache<>(capacity, 4 * Runtime.getRuntime().availableProcessors());
+        this.calculator = calculator;
+        this.showdowns = showdowns;
+    }
+
+    /**
+     * @param hole  two hole cards
+     * @param board three to five community cards
+     *
+     * @return rank of the best hand made of the cards, see {@link HandRanker#rank(long)}
+     */
+    public int rank(final CardSet hole, final CardSet board) {
+        if (board.size() < 3) {
+            throw new IllegalArgumentException("Rank needs at least three community cards, got " + board);
+        }
+        final Strength strength = strength(hole, board);
+        int rv = strength.rank;
+        if (rv == UNKNOWN) {
+            rv = HandRanker.rank(hole.bits() | board.bits());
+            strength.rank = rv;
+        }
+        return rv;
+    }
+
+    /**
+     * @param hole      two hole cards
+     * @param board     community cards known so far
+     * @param opponents 1 to {@value PreflopEquity#MAX_OPPONENTS} opponents with random cards
+     *
+     * @return equity of the hole cards against the opponents
+     */
+    public Equity equity(final CardSet hole, final CardSet board, final int opponents) {
+        if (opponents < 1 || opponents > PreflopEquity.MAX_OPPONENTS) {
+            throw new IllegalArgumentException("No equity against " + opponents + " opponents");
+        }
+        final AtomicReferenceArray<Equity> equities = strength(hole, board).equities;
+        final Equity rv = equities.get(opponents - 1);
+        if (rv != null) {
+            return rv;
+        }
+        final Equity computed = calculator.calculate(hole, board, CardSet.EMPTY, opponents, showdowns);
+        return equities.compareAndSet(opponents - 1, null, computed)? computed: equities.get(opponents - 1);
+    }
+
+    /**
+     * @return number of lookups of cached hands
+     */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * @return number of lookups of hands which were not cached
+     */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    /**
+     * @return number of hands cached
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private Strength strength(final CardSet hole, final CardSet board) {
+        if (hole.size() != 2) {
+            throw new IllegalArgumentException("Two hole cards expected, got " + hole);
+        }
+        return cache.get(SuitIsomorphism.key(hole, board), key -> new Strength());
+    }
+
+    /**
+     * What's known about a hand, filled as it's asked for.
+     */
+    private static final class Strength {
+        private volatile int rank = UNKNOWN;
+        private final AtomicReferenceArray<Equity> equities = new AtomicReferenceArray<>(PreflopEquity.MAX_OPPONENTS);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * @(#) PreflopEquity.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+import poker.CardDTO;
+import poker.CardSet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Precomputed equity of each of the 169 strategically distinct starting hands against 1 to {@value #MAX_OPPONENTS}
+ * opponents with random cards and no cards known yet, so preflop decisions don't need to compute it.
+ * <p/>
+ * The hands are indexed as a 13 x 13 matrix of the ranks (ordinals of {@link CardDTO.Value}): a pair at the diagonal,
+ * a suited hand at {@code high * 13 + low}, an offsuit one at {@code low * 13 + high}.  The table is the resource
+ * {@value #RESOURCE} next to this class, written by {@link PreflopEquityGenerator}: a header of the magic number and
+ * the dimensions followed by the equities as unsigned 16-bit fractions of 65535, by hand and then by the number of
+ * opponents.  It's mapped into memory at the first lookup (read when it's packed in a jar, where it can't be mapped),
+ * and a lookup is a single read of it.
+ *
+ * @version created on 2014-07-24, 21:30
+ */
+public final class PreflopEquity {
+    public static final int HANDS = 169;
+    /**
+     * the most opponents at a table of 23 players, the most that can be dealt two cards each and a board
+     */
+    public static final int MAX_OPPONENTS = 22;
+
+    static final String RESOURCE = "preflop-equity.bin";
+    static final int MAGIC = 0x50464551;
+    static final int HEADER = 8;
+    static final double SCALE = 0xFFFF;
+
+    private PreflopEquity() {
+    }
+
+    /**
+     * @return equity of the hole cards against the number of opponents before the flop
+     */
+    public static double equity(final CardDTO first, final CardDTO second, final int opponents) {
+        return equity(index(first, second), opponents);
+    }
+
+    /**
+     * @param hole the two hole cards
+     *
+     * @return equity of the hole cards against the number of opponents before the flop
+     */
+    public static double equity(final CardSet hole, final int opponents) {
+        if (hole.size() != 2) {
+            throw new IllegalArgumentException("Two hole cards expected, got " + hole);
+        }
+        final long bits = hole.bits();
+        final CardDTO first = CardDTO.of(Long.numberOfTrailingZeros(bits));
+        final CardDTO second = CardDTO.of(63 - Long.numberOfLeadingZeros(bits));
+        return equity(index(first, second), opponents);
+    }
+
+    /**
+     * @param hand      index of the starting hand, see {@link #index(CardDTO, CardDTO)}
+     * @param opponents 1 to {@value #MAX_OPPONENTS}
+     */
+    public static double equity(final int hand, final int opponents) {
+        if (hand < 0 || hand >= HANDS || opponents < 1 || opponents > MAX_OPPONENTS) {
+            throw new IllegalArgumentException("No equity of hand " + hand + " against " + opponents + " opponents");
+        }
+        return Table.EQUITIES.getChar(HEADER + 2 * (hand * MAX_OPPONENTS + opponents - 1)) / SCALE;
+    }
+
+    /**
+     * @return index of the starting hand made of the two cards, 0 to {@value #HANDS} - 1
+     */
+    public static int index(final CardDTO first, final CardDTO second) {
+        return index(first.getValue().ordinal(), second.getValue().ordinal(), first.getSuit() == second.getSuit());
+    }
+
+    /**
+     * @param first  rank of one card (ordinal of {@link CardDTO.Value})
+     * @param second rank of the other card
+     */
+    static int index(final int first, final int second, final boolean suited) {
+        final int high = Math.max(first, second);
+        final int low = Math.min(first, second);
+        return suited? high * CardSet.RANKS + low: low * CardSet.RANKS + high;
+    }
+
+    /**
+     * @return two cards of the starting hand with the index
+     */
+    static CardSet hand(final int index) {
+        final int row = index / CardSet.RANKS;
+        final int column = index % CardSet.RANKS;
+        final CardDTO.Value[] values = CardDTO.Value.values();
+        return CardSet.of(CardDTO.of(CardDTO.Suit.CLUBS, values[row]),
+                CardDTO.of(row > column? CardDTO.Suit.CLUBS: CardDTO.Suit.DIAMONDS, values[column]));
+    }
+
+    /**
+     * Holder of the table, loaded at the first lookup.
+     */
+    private static final class Table {
+        private static final ByteBuffer EQUITIES = load();
+
+        private static ByteBuffer load() {
+            final URL url = PreflopEquity.class.getResource(RESOURCE);
+            if (url == null) {
+                throw new IllegalStateException("Resource " + RESOURCE + " is missing");
+            }
+            final ByteBuffer rv;
+            try {
+                if ("file".equals(url.getProtocol())) {
+                    try (FileChannel channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ)) {
+                        rv = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    }
+                } else {
+                    rv = ByteBuffer.wrap(read(url));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read " + url, e);
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException("Cannot read " + url, e);
+            }
+            if (rv.capacity() != HEADER + 2 * HANDS * MAX_OPPONENTS || rv.getInt(0) != MAGIC
+                    || rv.getShort(4) != HANDS || rv.getShort(6) != MAX_OPPONENTS) {
+                throw new IllegalStateException("Resource " + url + " is not a table of preflop equities");
+            }
+            return rv;
+        }
+
+        private static byte[] read(final URL url) throws IOException {
+            try (InputStream in = url.openStream()) {
+                final ByteArrayOutputStream rv = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[8192];
+                for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+                    rv.write(buffer, 0, n);
+                }
+                return rv.toByteArray();
+            }
+        }
+    }
+}
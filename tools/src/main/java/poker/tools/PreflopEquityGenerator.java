@@ -0,0 +1,67 @@
+/*
+ * @(#) PreflopEquityGenerator.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+import poker.CardSet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Writes the table of {@link PreflopEquity}, sampling every entry with the {@link EquityCalculator} until its standard
+ * error drops to the target.  Run at build time by the {@code preflop-equity} profile of the module, which regenerates
+ * the resource in the sources:
+ * <pre>
+ *     mvn -P preflop-equity process-classes -pl tools
+ * </pre>
+ * Arguments: the file to write, the target standard error (0.0005 by default) and the seed (169 by default), so the
+ * table is regenerated the same.
+ *
+ * @version created on 2014-07-24, 22:10
+ */
+public final class PreflopEquityGenerator {
+    private static final long MAX_SHOWDOWNS = 10000000;
+
+    private PreflopEquityGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: PreflopEquityGenerator file [standard-error [seed]]");
+            return;
+        }
+        final Path file = Paths.get(args[0]);
+        final double standardError = args.length > 1? Double.parseDouble(args[1]): 0.0005;
+        final long seed = args.length > 2? Long.parseLong(args[2]): 169;
+
+        final EquityCalculator calculator = new EquityCalculator(ForkJoinPool.commonPool(), seed);
+        final ByteBuffer table = ByteBuffer.allocate(PreflopEquity.HEADER
+                + 2 * PreflopEquity.HANDS * PreflopEquity.MAX_OPPONENTS);
+        table.putInt(PreflopEquity.MAGIC).putShort((short)PreflopEquity.HANDS)
+                .putShort((short)PreflopEquity.MAX_OPPONENTS);
+        final long started = System.nanoTime();
+        for (int hand = 0; hand < PreflopEquity.HANDS; hand++) {
+            final CardSet hole = PreflopEquity.hand(hand);
+            for (int opponents = 1; opponents <= PreflopEquity.MAX_OPPONENTS; opponents++) {
+                final Equity equity = calculator.calculate(hole, CardSet.EMPTY, CardSet.EMPTY, opponents, standardError,
+                        MAX_SHOWDOWNS);
+                table.putChar((char)Math.round(equity.getEquity() * PreflopEquity.SCALE));
+            }
+            System.out.println(String.format("%s\t%.4f ... %.4f\t%.0f s", hole,
+                    table.getChar(table.position() - 2 * PreflopEquity.MAX_OPPONENTS) / PreflopEquity.SCALE,
+                    table.getChar(table.position() - 2) / PreflopEquity.SCALE, (System.nanoTime() - started) / 1e9));
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.write(file, table.array());
+    }
+}
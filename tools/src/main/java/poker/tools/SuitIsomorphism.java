@@ -0,0 +1,108 @@
+/*
+ * @(#) SuitIsomorphism.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+import poker.CardSet;
+
+/**
+ * Canonical 64-bit keys of hole cards with a board, equal for all the combinations which differ by a permutation of the
+ * suits only and so are strategically the same: A&hearts; K&hearts; on 2&hearts; 7&spades; 9&clubs; has the same key as
+ * A&spades; K&spades; on 2&spades; 7&diamonds; 9&hearts;.  Preflop, the 1326 holdings have 169 keys.
+ * <p/>
+ * Each suit is described by the ranks of the hole cards and of the board in it; the suits are ordered by those
+ * descriptions and renamed in that order.  The key is the board after the renaming, as a 52-bit mask laid out as in
+ * {@link CardSet}, with the deck indices of the two renamed hole cards in the 12 bits above it, the lower one first (0
+ * without hole cards).  Computing it allocates nothing.
+ *
+ * @version created on 2014-07-26, 17:20
+ */
+public final class SuitIsomorphism {
+    private static final int RANKS = CardSet.RANKS;
+    private static final int RANK_MASK = (1 << RANKS) - 1;
+    private static final int SUIT_BITS = 2;
+    private static final int BOARD_BITS = 52;
+    private static final int CARD_BITS = 6;
+
+    private SuitIsomorphism() {
+    }
+
+    /**
+     * @param hole  two hole cards or none
+     * @param board up to five community cards, or any cards when there are no hole cards
+     */
+    public static long key(final CardSet hole, final CardSet board) {
+        return key(hole.bits(), board.bits());
+    }
+
+    /**
+     * @param hole  bit mask of two hole cards or 0
+     * @param board bit mask of the community cards, or of any cards when there are no hole cards
+     */
+    public static long key(final long hole, final long board) {
+        if (hole != 0 && Long.bitCount(hole) != 2 || (hole & board) != 0) {
+            throw new IllegalArgumentException("Two hole cards apart from the board or none expected");
+        }
+        long a = describe(hole, board, 0);
+        long b = describe(hole, board, 1);
+        long c = describe(hole, board, 2);
+        long d = describe(hole, board, 3);
+        // sorting network, descending; suits described the same are interchangeable, so the order among them is moot
+        long t;
+        if (a < b) {
+            t = a;
+            a = b;
+            b = t;
+        }
+        if (c < d) {
+            t = c;
+            c = d;
+            d = t;
+        }
+        if (a < c) {
+            t = a;
+            a = c;
+            c = t;
+        }
+        if (b < d) {
+            t = b;
+            b = d;
+            d = t;
+        }
+        if (b < c) {
+            t = b;
+            b = c;
+            c = t;
+        }
+        final long canonicalBoard = boardRanks(a) | boardRanks(b) << RANKS | boardRanks(c) << 2 * RANKS
+                | boardRanks(d) << 3 * RANKS;
+        if (hole == 0) {
+            return canonicalBoard;
+        }
+        final long canonicalHole = holeRanks(a) | holeRanks(b) << RANKS | holeRanks(c) << 2 * RANKS
+                | holeRanks(d) << 3 * RANKS;
+        final long low = Long.numberOfTrailingZeros(canonicalHole);
+        final long high = 63 - Long.numberOfLeadingZeros(canonicalHole);
+        return canonicalBoard | (low | high << CARD_BITS) << BOARD_BITS;
+    }
+
+    /**
+     * @return the ranks of the hole cards in the suit above the ranks of the board in it, above the suit
+     */
+    private static long describe(final long hole, final long board, final int suit) {
+        final long holeRanks = hole >>> suit * RANKS & RANK_MASK;
+        final long boardRanks = board >>> suit * RANKS & RANK_MASK;
+        return (holeRanks << RANKS | boardRanks) << SUIT_BITS | suit;
+    }
+
+    private static long boardRanks(final long description) {
+        return description >>> SUIT_BITS & RANK_MASK;
+    }
+
+    private static long holeRanks(final long description) {
+        return description >>> SUIT_BITS + RANKS & RANK_MASK;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * @(#) EquityCalculatorTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import poker.CardDTO;
+import poker.CardSet;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static poker.CardDTO.Suit.CLUBS;
+import static poker.CardDTO.Suit.DIAMONDS;
+import static poker.CardDTO.Suit.HEARTS;
+import static poker.CardDTO.Suit.SPADES;
+import static poker.CardDTO.Value.ACE;
+import static poker.CardDTO.Value.FOUR;
+import static poker.CardDTO.Value.JACK;
+import static poker.CardDTO.Value.KING;
+import static poker.CardDTO.Value.NINE;
+import static poker.CardDTO.Value.QUEEN;
+import static poker.CardDTO.Value.SEVEN;
+import static poker.CardDTO.Value.TEN;
+import static poker.CardDTO.Value.TWO;
+
+public class EquityCalculatorTest {
+    private static final CardSet ACES = CardSet.of(CardDTO.of(SPADES, ACE), CardDTO.of(HEARTS, ACE));
+
+    private final EquityCalculator calculator = new EquityCalculator(ForkJoinPool.commonPool(), 42);
+
+    @Test
+    public void testPocketAces() throws Exception {
+        final Equity equity = calculator.calculate(ACES, CardSet.EMPTY, CardSet.EMPTY, 1, 400000);
+        Assert.assertEquals(equity.getShowdowns(), 400000);
+        // 85.2% is the well known equity of aces against a random hand
+        Assert.assertEquals(equity.getEquity(), 0.852, 4 * equity.getStandardError() + 0.001, equity.toString());
+        Assert.assertTrue(equity.getStandardError() > 0 && equity.getStandardError() < 0.001, equity.toString());
+        Assert.assertEquals(equity.getWin() + equity.getTie() + equity.getLoss(), 1, 1e-9);
+        Assert.assertTrue(equity.getWin() <= equity.getEquity() && equity.getEquity() <= equity.getWin() + equity.getTie(),
+                "Ties count as a part of the pot " + equity);
+    }
+
+    @Test
+    public void testMoreOpponentsLowerEquity() throws Exception {
+        final Equity one = calculator.calculate(ACES, CardSet.EMPTY, CardSet.EMPTY, 1, 100000);
+        final Equity five = calculator.calculate(ACES, CardSet.EMPTY, CardSet.EMPTY, 5, 100000);
+        Assert.assertTrue(five.getEquity() < one.getEquity() - 0.2, one + " vs " + five);
+    }
+
+    @Test
+    public void testBoardPlays() throws Exception {
+        final CardSet royal = CardSet.of(CardDTO.of(CLUBS, ACE), CardDTO.of(CLUBS, KING), CardDTO.of(CLUBS, QUEEN),
+                CardDTO.of(CLUBS, JACK), CardDTO.of(CLUBS, TEN));
+        final CardSet hole = CardSet.of(CardDTO.of(DIAMONDS, SEVEN), CardDTO.of(HEARTS, TWO));
+        final Equity equity = calculator.calculate(hole, royal, CardSet.EMPTY, 3, 10000);
+        Assert.assertEquals(equity.getTie(), 1, 0, "Everybody plays the royal flush on the board");
+        Assert.assertEquals(equity.getEquity(), 0.25, 1e-9, "The pot is split four ways");
+        Assert.assertEquals(equity.getStandardError(), 0, 0);
+    }
+
+    @Test
+    public void testDeadCards() throws Exception {
+        final CardSet board = CardSet.of(CardDTO.of(CLUBS, TWO), CardDTO.of(DIAMONDS, SEVEN), CardDTO.of(HEARTS, NINE),
+                CardDTO.of(SPADES, JACK));
+        final CardSet left = CardSet.of(CardDTO.of(CLUBS, KING), CardDTO.of(DIAMONDS, KING), CardDTO.of(SPADES, FOUR));
+        final CardSet dead = CardSet.DECK.minus(ACES).minus(board).minus(left);
+        final Equity equity = calculator.calculate(ACES, board, dead, 1, 10000);
+        Assert.assertEquals(equity.getWin(), 1, 0, "Any river and opponent out of " + left + " loses to aces");
+        Assert.assertTrue(calculator.calculate(ACES, board, CardSet.EMPTY, 1, 10000).getLoss() > 0,
+                "Aces can lose when the deck is full");
+    }
+
+    @Test
+    public void testTargetPrecision() throws Exception {
+        final Equity equity = calculator.calculate(ACES, CardSet.EMPTY, CardSet.EMPTY, 2, 0.002, 10000000);
+        Assert.assertTrue(equity.getStandardError() <= 0.002, equity.toString());
+        Assert.assertTrue(equity.getShowdowns() > EquityCalculator.FIRST_ROUND, "Needs more than the first round");
+
+        final Equity limited = calculator.calculate(ACES, CardSet.EMPTY, CardSet.EMPTY, 2, 1e-6, 100000);
+        Assert.assertEquals(limited.getShowdowns(), 100000, "The limit should stop sampling");
+    }
+
+    @Test
+    public void testSeedRepeats() throws Exception {
+        final Equity first = new EquityCalculator(new ForkJoinPool(3), 7)
+                .calculate(ACES, CardSet.EMPTY, CardSet.EMPTY, 3, 50000);
+        final Equity second = new EquityCalculator(new ForkJoinPool(1), 7)
+                .calculate(ACES, CardSet.EMPTY, CardSet.EMPTY, 3, 50000);
+        Assert.assertEquals(second.getEquity(), first.getEquity(), 0, "Same seed, same showdowns whatever the pool");
+        Assert.assertEquals(second.getWin(), first.getWin(), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testOverlap() throws Exception {
+        calculator.calculate(ACES, CardSet.of(CardDTO.of(SPADES, ACE)), CardSet.EMPTY, 1, 1000);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTooManyOpponents() throws Exception {
+        calculator.calculate(ACES, CardSet.EMPTY, CardSet.EMPTY, 24, 1000);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * @(#) EquityEnumeratorTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import poker.CardDTO;
+import poker.CardSet;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static poker.CardDTO.Suit.CLUBS;
+import static poker.CardDTO.Suit.DIAMONDS;
+import static poker.CardDTO.Suit.HEARTS;
+import static poker.CardDTO.Suit.SPADES;
+import static poker.CardDTO.Value.ACE;
+import static poker.CardDTO.Value.JACK;
+import static poker.CardDTO.Value.KING;
+import static poker.CardDTO.Value.NINE;
+import static poker.CardDTO.Value.SEVEN;
+import static poker.CardDTO.Value.TWO;
+
+public class EquityEnumeratorTest {
+    private static final CardSet ACES = CardSet.of(CardDTO.of(SPADES, ACE), CardDTO.of(HEARTS, ACE));
+    private static final CardSet KINGS = CardSet.of(CardDTO.of(SPADES, KING), CardDTO.of(HEARTS, KING));
+    private static final CardSet FLOP = CardSet.of(CardDTO.of(CLUBS, TWO), CardDTO.of(DIAMONDS, SEVEN),
+            CardDTO.of(HEARTS, NINE));
+
+    private final EquityEnumerator enumerator = new EquityEnumerator();
+
+    @Test
+    public void testRiver() throws Exception {
+        final Equity[] equities = enumerator.enumerate(Arrays.asList(ACES, KINGS),
+                FLOP.with(CardDTO.of(DIAMONDS, JACK)), CardSet.EMPTY);
+        Assert.assertEquals(equities[0].getShowdowns(), 44, "Every river card once");
+        Assert.assertEquals(equities[0].getEquity(), 42.0 / 44, 1e-12, "Kings need one of the two kings left");
+        Assert.assertEquals(equities[1].getEquity(), 2.0 / 44, 1e-12);
+        Assert.assertEquals(equities[0].getStandardError(), 0, 0, "Enumeration is exact");
+    }
+
+    @Test
+    public void testPreflop() throws Exception {
+        final Equity[] equities = enumerator.enumerate(Arrays.asList(ACES, KINGS), CardSet.EMPTY, CardSet.EMPTY);
+        Assert.assertEquals(equities[0].getShowdowns(), Combinations.count(48, 5), "Every board once");
+        Assert.assertEquals(equities[0].getEquity() + equities[1].getEquity(), 1, 1e-9, "The pot is shared by two");
+        Assert.assertEquals(equities[0].getTie(), equities[1].getTie(), 0, "Ties are the same for both");
+        Assert.assertTrue(equities[0].getEquity() > 0.8 && equities[0].getEquity() < 0.84, equities[0].toString());
+    }
+
+    @Test
+    public void testCompleteBoard() throws Exception {
+        final CardSet board = FLOP.with(CardDTO.of(DIAMONDS, JACK)).with(CardDTO.of(CLUBS, KING));
+        final Equity[] equities = enumerator.enumerate(Arrays.asList(ACES, KINGS), board, CardSet.EMPTY);
+        Assert.assertEquals(equities[0].getShowdowns(), 1);
+        Assert.assertEquals(equities[1].getWin(), 1, 0, "Set of kings wins");
+    }
+
+    @Test
+    public void testRandomOpponent() throws Exception {
+        final Equity exact = enumerator.enumerate(ACES, FLOP, CardSet.EMPTY);
+        Assert.assertEquals(exact.getShowdowns(), Combinations.count(47, 2) * Combinations.count(45, 2),
+                "Every holding with every turn and river");
+        final Equity sampled = new EquityCalculator(ForkJoinPool.commonPool(), 1)
+                .calculate(ACES, FLOP, CardSet.EMPTY, 1, 200000);
+        Assert.assertEquals(sampled.getEquity(), exact.getEquity(), 5 * sampled.getStandardError(),
+                "Sampling should agree with enumeration " + exact + " vs " + sampled);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testOverlap() throws Exception {
+        enumerator.enumerate(Arrays.asList(ACES, KINGS), CardSet.of(CardDTO.of(SPADES, KING)), CardSet.EMPTY);
+    }
+
+    @Test
+    public void testCombinations() throws Exception {
+        final int[] cards = {0, 3, 7, 12, 20, 33, 40, 45, 50, 51};
+        final Combinations combinations = new Combinations(cards, 3);
+        final Set<Long> seen = new HashSet<>();
+        for (combinations.reset(0); combinations.next(); ) {
+            Assert.assertEquals(Long.bitCount(combinations.bits()), 3);
+            Assert.assertTrue(seen.add(combinations.bits()), "Combination repeated: " + combinations.bits());
+        }
+        Assert.assertEquals(seen.size(), Combinations.count(cards.length, 3));
+
+        seen.clear();
+        for (combinations.reset(4); combinations.next(); ) {
+            Assert.assertEquals(combinations.bits() & (1L << 20) - 1, 0, "Only the cards from the position on");
+            seen.add(combinations.bits());
+        }
+        Assert.assertEquals(seen.size(), Combinations.count(cards.length - 4, 3));
+
+        final Combinations none = new Combinations(cards, 0);
+        int count = 0;
+        for (none.reset(0); none.next(); ) {
+            Assert.assertEquals(none.bits(), 0);
+            count++;
+        }
+        Assert.assertEquals(count, 1, "There's one empty combination");
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * @(#) HandRankerTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import poker.CardDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static poker.CardDTO.Suit.CLUBS;
+import static poker.CardDTO.Suit.DIAMONDS;
+import static poker.CardDTO.Suit.HEARTS;
+import static poker.CardDTO.Suit.SPADES;
+import static poker.CardDTO.Value.ACE;
+import static poker.CardDTO.Value.FIVE;
+import static poker.CardDTO.Value.FOUR;
+import static poker.CardDTO.Value.KING;
+import static poker.CardDTO.Value.SIX;
+import static poker.CardDTO.Value.TEN;
+import static poker.CardDTO.Value.THREE;
+import static poker.CardDTO.Value.TWO;
+
+public class HandRankerTest {
+    public static final int MAX_TRIES = 200000;
+
+    /**
+     * The list based evaluators in the order of hand strength; used as a reference implementation.
+     */
+    private static final List<Function<List<CardDTO>, List<CardDTO>>> REFERENCE = Arrays.asList(
+            HandEvaluator::straightFlush,
+            HandEvaluator::fourOfAKind,
+            HandEvaluator::fullHouse,
+            HandEvaluator::flush,
+            HandEvaluator::straight,
+            HandEvaluator::threeOfAKind,
+            HandEvaluator::twoPairs,
+            HandEvaluator::onePair
+    );
+
+    private final List<CardDTO> deck = Collections.unmodifiableList(CardDTO.deck());
+
+    @Test
+    public void testAgreesWithReference() throws Exception {
+        final Random rnd = new Random(42);
+        for (int i = 0; i < MAX_TRIES; i++) {
+            final int size = 5 + rnd.nextInt(3);
+            final List<CardDTO> first = deal(rnd, size);
+            final List<CardDTO> second = deal(rnd, size);
+            final int expected = Integer.signum(compareReference(first, second));
+            final int got = Integer.signum(Integer.compare(HandRanker.rank(first), HandRanker.rank(second)));
+            Assert.assertEquals(got, expected, "Ranking of " + CardDTO.toString(first) + " vs " + CardDTO.toString(second));
+        }
+    }
+
+    @Test
+    public void testCategory() throws Exception {
+        final Random rnd = new Random(7);
+        for (int i = 0; i < MAX_TRIES; i++) {
+            final List<CardDTO> cards = deal(rnd, 7);
+            Assert.assertEquals(HandRanker.category(HandRanker.rank(cards)), referenceCategory(cards),
+                    "Category of " + CardDTO.toString(cards));
+        }
+    }
+
+    @Test
+    public void testWheelIsTheSmallestStraight() throws Exception {
+        final int wheel = HandRanker.rank(Arrays.asList(card(CLUBS, ACE), card(HEARTS, TWO), card(SPADES, THREE),
+                card(CLUBS, FOUR), card(DIAMONDS, FIVE)));
+        final int six = HandRanker.rank(Arrays.asList(card(SPADES, SIX), card(HEARTS, TWO), card(SPADES, THREE),
+                card(CLUBS, FOUR), card(DIAMONDS, FIVE)));
+        final int aceHigh = HandRanker.rank(Arrays.asList(card(CLUBS, ACE), card(HEARTS, KING), card(SPADES, THREE),
+                card(CLUBS, FOUR), card(DIAMONDS, FIVE)));
+
+        Assert.assertEquals(HandRanker.category(wheel), HandRanker.STRAIGHT);
+        Assert.assertTrue(wheel < six, "6 high straight should beat the wheel");
+        Assert.assertTrue(aceHigh < wheel, "Any straight should beat ace high");
+    }
+
+    @Test
+    public void testOrderIndependent() throws Exception {
+        final Random rnd = new Random(11);
+        for (int i = 0; i < 1000; i++) {
+            final List<CardDTO> cards = deal(rnd, 7);
+            final int rank = HandRanker.rank(cards);
+            Collections.shuffle(cards, rnd);
+            Assert.assertEquals(HandRanker.rank(cards), rank);
+        }
+    }
+
+    @Test
+    public void testRepeatedAgreesOnDistinctCards() throws Exception {
+        final Random rnd = new Random(5);
+        for (int i = 0; i < MAX_TRIES; i++) {
+            final List<CardDTO> cards = deal(rnd, 5 + rnd.nextInt(3));
+            Assert.assertEquals(HandRanker.rankRepeated(cards), HandRanker.rank(cards), CardDTO.toString(cards));
+        }
+    }
+
+    @Test
+    public void testRepeatedCards() throws Exception {
+        final List<CardDTO> board = Arrays.asList(card(SPADES, KING), card(HEARTS, TWO), card(CLUBS, THREE),
+                card(DIAMONDS, SIX), card(CLUBS, FIVE));
+        final List<CardDTO> aces = new ArrayList<>(board);
+        aces.addAll(Arrays.asList(card(CLUBS, ACE), card(CLUBS, ACE)));
+        final List<CardDTO> kings = new ArrayList<>(board);
+        kings.addAll(Arrays.asList(card(HEARTS, KING), card(HEARTS, FOUR)));
+        Assert.assertEquals(HandRanker.category(HandRanker.rank(aces)), HandRanker.ONE_PAIR, "Ace dealt twice pairs");
+        Assert.assertEquals(HandRanker.category(HandRanker.rank(kings)), HandRanker.STRAIGHT);
+        kings.set(6, card(DIAMONDS, TEN));
+        Assert.assertTrue(HandRanker.rank(aces) > HandRanker.rank(kings), "Aces beat kings");
+        final List<CardDTO> flush = Arrays.asList(card(CLUBS, ACE), card(CLUBS, ACE), card(CLUBS, KING),
+                card(CLUBS, THREE), card(CLUBS, FIVE), card(HEARTS, SIX));
+        Assert.assertEquals(HandRanker.category(HandRanker.rank(flush)), HandRanker.FLUSH, "Repeats count for a flush");
+    }
+
+    private List<CardDTO> deal(final Random rnd, final int n) {
+        final List<CardDTO> cards = new ArrayList<>(deck);
+        Collections.shuffle(cards, rnd);
+        return new ArrayList<>(cards.subList(0, n));
+    }
+
+    private static int referenceCategory(final List<CardDTO> cards) {
+        for (int i = 0; i < REFERENCE.size(); i++) {
+            if (REFERENCE.get(i).apply(cards) != null) {
+                return HandRanker.STRAIGHT_FLUSH - i;
+            }
+        }
+        return HandRanker.HIGH_CARD;
+    }
+
+    private static List<CardDTO> referenceCards(final List<CardDTO> cards) {
+        for (final Function<List<CardDTO>, List<CardDTO>> evaluator : REFERENCE) {
+            final List<CardDTO> rv = evaluator.apply(cards);
+            if (rv != null) {
+                return rv;
+            }
+        }
+        return HandEvaluator.topN(cards, 5);
+    }
+
+    private static int compareReference(final List<CardDTO> first, final List<CardDTO> second) {
+        final int categoryCmp = Integer.compare(referenceCategory(first), referenceCategory(second));
+        if (categoryCmp != 0) {
+            return categoryCmp;
+        }
+        final List<CardDTO> firstCards = referenceCards(first);
+        final List<CardDTO> secondCards = referenceCards(second);
+        for (int i = 0; i < 5; i++) {
+            final int cmp = firstCards.get(i).getValue().compareTo(secondCards.get(i).getValue());
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    private static CardDTO card(final CardDTO.Suit suit, final CardDTO.Value value) {
+        return CardDTO.of(suit, value);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * @(#) HandStrengthCacheTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import poker.CardDTO;
+import poker.CardSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static poker.CardDTO.Suit.CLUBS;
+import static poker.CardDTO.Suit.DIAMONDS;
+import static poker.CardDTO.Suit.HEARTS;
+import static poker.CardDTO.Suit.SPADES;
+import static poker.CardDTO.Value.ACE;
+import static poker.CardDTO.Value.KING;
+import static poker.CardDTO.Value.NINE;
+import static poker.CardDTO.Value.SEVEN;
+import static poker.CardDTO.Value.TWO;
+
+public class HandStrengthCacheTest {
+    private final EquityCalculator calculator = new EquityCalculator(ForkJoinPool.commonPool(), 5);
+
+    @Test
+    public void testRank() throws Exception {
+        final HandStrengthCache cache = new HandStrengthCache(1000, calculator, 1000);
+        final Random rnd = new Random(17);
+        final List<CardDTO> deck = new ArrayList<>(CardDTO.deck());
+        for (int i = 0; i < 20000; i++) {
+            Collections.shuffle(deck, rnd);
+            final CardSet hole = CardSet.of(deck.subList(0, 2));
+            final CardSet board = CardSet.of(deck.subList(2, 5 + rnd.nextInt(3)));
+            Assert.assertEquals(cache.rank(hole, board), HandRanker.rank(hole.union(board)), hole + " " + board);
+        }
+        Assert.assertTrue(cache.size() <= 1000, "Cache should be bounded, holds " + cache.size());
+        Assert.assertEquals(cache.getHits() + cache.getMisses(), 20000);
+    }
+
+    @Test
+    public void testIsomorphicHandsShareEquity() throws Exception {
+        final HandStrengthCache cache = new HandStrengthCache(100, calculator, 20000);
+        final Equity hearts = cache.equity(CardSet.of(CardDTO.of(HEARTS, ACE), CardDTO.of(HEARTS, KING)),
+                CardSet.of(CardDTO.of(HEARTS, TWO), CardDTO.of(SPADES, SEVEN), CardDTO.of(CLUBS, NINE)), 2);
+        final Equity spades = cache.equity(CardSet.of(CardDTO.of(SPADES, ACE), CardDTO.of(SPADES, KING)),
+                CardSet.of(CardDTO.of(SPADES, TWO), CardDTO.of(DIAMONDS, SEVEN), CardDTO.of(HEARTS, NINE)), 2);
+        Assert.assertSame(spades, hearts, "Hands differing by suits only should be computed once");
+        Assert.assertEquals(hearts.getShowdowns(), 20000);
+        Assert.assertEquals(cache.getHits(), 1);
+        Assert.assertEquals(cache.getMisses(), 1);
+
+        final Equity three = cache.equity(CardSet.of(CardDTO.of(SPADES, ACE), CardDTO.of(SPADES, KING)),
+                CardSet.of(CardDTO.of(SPADES, TWO), CardDTO.of(DIAMONDS, SEVEN), CardDTO.of(HEARTS, NINE)), 3);
+        Assert.assertTrue(three.getEquity() < hearts.getEquity(), "Each number of opponents has its own equity");
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        final ConcurrentLruCache<Long> cache = new ConcurrentLruCache<>(64, 1);
+        for (long key = 0; key < 64; key++) {
+            cache.get(key, k -> k);
+        }
+        cache.get(0, k -> -1L);
+        cache.get(64, k -> k);
+        Assert.assertEquals(cache.size(), 64, "Full cache should stay full");
+        Assert.assertEquals((long)cache.get(0, k -> -1L), 0, "Recently used key should stay");
+        Assert.assertEquals((long)cache.get(1, k -> -1L), -1, "Least recently used key should be evicted");
+    }
+
+    @Test
+    public void testCapacity() throws Exception {
+        for (final int[] sizes : new int[][] {{3, 16}, {1, 8}, {10, 4}, {100, 8}}) {
+            final ConcurrentLruCache<Long> cache = new ConcurrentLruCache<>(sizes[0], sizes[1]);
+            for (long key = 0; key < 10000; key++) {
+                cache.get(key * 0x5DEECE66DL, k -> k);
+            }
+            Assert.assertEquals(cache.size(), sizes[0], "Full cache of capacity " + sizes[0] + " with concurrency "
+                    + sizes[1] + " should hold exactly its capacity");
+        }
+    }
+}
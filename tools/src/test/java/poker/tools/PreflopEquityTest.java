@@ -0,0 +1,83 @@
+/*
+ * @(#) PreflopEquityTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import poker.CardDTO;
+import poker.CardSet;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static poker.CardDTO.Suit.CLUBS;
+import static poker.CardDTO.Suit.DIAMONDS;
+import static poker.CardDTO.Suit.HEARTS;
+import static poker.CardDTO.Suit.SPADES;
+import static poker.CardDTO.Value.ACE;
+import static poker.CardDTO.Value.KING;
+import static poker.CardDTO.Value.SEVEN;
+import static poker.CardDTO.Value.THREE;
+import static poker.CardDTO.Value.TWO;
+
+public class PreflopEquityTest {
+    private static final int DECK = 52;
+
+    @Test
+    public void testIndex() throws Exception {
+        final Set<Integer> indices = new HashSet<>();
+        for (int first = 0; first < DECK; first++) {
+            for (int second = first + 1; second < DECK; second++) {
+                final int index = PreflopEquity.index(CardDTO.of(first), CardDTO.of(second));
+                Assert.assertEquals(PreflopEquity.index(CardDTO.of(second), CardDTO.of(first)), index,
+                        "Order of the cards");
+                final CardSet hand = PreflopEquity.hand(index);
+                Assert.assertEquals(PreflopEquity.index(hand.asList().get(0), hand.asList().get(1)), index,
+                        "Representative of " + index);
+                indices.add(index);
+            }
+        }
+        Assert.assertEquals(indices.size(), PreflopEquity.HANDS, "Starting hands");
+    }
+
+    @Test
+    public void testKnownEquities() throws Exception {
+        final double aces = PreflopEquity.equity(CardDTO.of(SPADES, ACE), CardDTO.of(HEARTS, ACE), 1);
+        Assert.assertEquals(aces, 0.852, 0.003, "Aces against a random hand");
+        final double worst = PreflopEquity.equity(CardDTO.of(CLUBS, THREE), CardDTO.of(DIAMONDS, TWO), 1);
+        for (int hand = 0; hand < PreflopEquity.HANDS; hand++) {
+            Assert.assertTrue(PreflopEquity.equity(hand, 1) <= aces, "Aces are the best starting hand");
+            Assert.assertTrue(PreflopEquity.equity(hand, 1) >= worst - 0.002,
+                    "3 2 offsuit is the worst against a random hand");
+            for (int opponents = 2; opponents <= PreflopEquity.MAX_OPPONENTS; opponents++) {
+                // within the precision of the table
+                final double fewer = PreflopEquity.equity(hand, opponents - 1);
+                Assert.assertTrue(PreflopEquity.equity(hand, opponents) < fewer + 0.002,
+                        "More opponents, lower equity of " + PreflopEquity.hand(hand));
+            }
+        }
+        Assert.assertEquals(PreflopEquity.equity(CardSet.of(CardDTO.of(HEARTS, ACE), CardDTO.of(HEARTS, KING)), 3),
+                PreflopEquity.equity(CardDTO.of(SPADES, KING), CardDTO.of(SPADES, ACE), 3), 0, "Suits don't matter");
+    }
+
+    @Test
+    public void testAgreesWithCalculator() throws Exception {
+        final EquityCalculator calculator = new EquityCalculator(ForkJoinPool.commonPool(), 3);
+        for (final int opponents : new int[] {1, 4, 9}) {
+            final CardSet hole = CardSet.of(CardDTO.of(CLUBS, KING), CardDTO.of(DIAMONDS, SEVEN));
+            final Equity equity = calculator.calculate(hole, CardSet.EMPTY, CardSet.EMPTY, opponents, 100000);
+            Assert.assertEquals(PreflopEquity.equity(hole, opponents), equity.getEquity(),
+                    4 * equity.getStandardError() + 0.002, "Against " + opponents + " opponents");
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTooManyOpponents() throws Exception {
+        PreflopEquity.equity(0, PreflopEquity.MAX_OPPONENTS + 1);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * @(#) SuitIsomorphismTest.java
+ *
+ * Copyright 2014 the poker project.
+ */
+
+package poker.tools;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import poker.CardDTO;
+import poker.CardSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static poker.CardDTO.Suit.CLUBS;
+import static poker.CardDTO.Suit.DIAMONDS;
+import static poker.CardDTO.Suit.HEARTS;
+import static poker.CardDTO.Suit.SPADES;
+import static poker.CardDTO.Value.ACE;
+import static poker.CardDTO.Value.KING;
+import static poker.CardDTO.Value.NINE;
+import static poker.CardDTO.Value.SEVEN;
+import static poker.CardDTO.Value.TWO;
+
+public class SuitIsomorphismTest {
+    private static final CardSet HOLE = CardSet.of(CardDTO.of(HEARTS, ACE), CardDTO.of(HEARTS, KING));
+    private static final CardSet FLOP = CardSet.of(CardDTO.of(HEARTS, TWO), CardDTO.of(SPADES, SEVEN),
+            CardDTO.of(CLUBS, NINE));
+
+    @Test
+    public void testPermutedSuitsSameKey() throws Exception {
+        final Random rnd = new Random(13);
+        final List<CardDTO> deck = new ArrayList<>(CardDTO.deck());
+        for (int i = 0; i < 10000; i++) {
+            Collections.shuffle(deck, rnd);
+            final CardSet hole = CardSet.of(deck.subList(0, 2));
+            final CardSet board = CardSet.of(deck.subList(2, 2 + rnd.nextInt(6)));
+            final long key = SuitIsomorphism.key(hole, board);
+            final List<CardDTO.Suit> suits = new ArrayList<>(Arrays.asList(CardDTO.Suit.values()));
+            Collections.shuffle(suits, rnd);
+            Assert.assertEquals(SuitIsomorphism.key(permute(hole, suits), permute(board, suits)), key,
+                    hole + " " + board + " with suits " + suits);
+        }
+    }
+
+    @Test
+    public void testPreflopHands() throws Exception {
+        final Set<Long> keys = new HashSet<>();
+        final List<CardDTO> deck = CardDTO.deck();
+        for (int first = 0; first < deck.size(); first++) {
+            for (int second = first + 1; second < deck.size(); second++) {
+                keys.add(SuitIsomorphism.key(CardSet.of(deck.get(first), deck.get(second)), CardSet.EMPTY));
+            }
+        }
+        Assert.assertEquals(keys.size(), PreflopEquity.HANDS, "Strategically distinct starting hands");
+    }
+
+    @Test
+    public void testDistinguishes() throws Exception {
+        final long key = SuitIsomorphism.key(HOLE, FLOP);
+        final CardSet offsuit = CardSet.of(CardDTO.of(HEARTS, ACE), CardDTO.of(DIAMONDS, KING));
+        Assert.assertNotEquals(SuitIsomorphism.key(offsuit, FLOP), key, "Suited and offsuit hole cards differ");
+        final CardSet rainbow = CardSet.of(CardDTO.of(DIAMONDS, TWO), CardDTO.of(SPADES, SEVEN),
+                CardDTO.of(CLUBS, NINE));
+        Assert.assertNotEquals(SuitIsomorphism.key(HOLE, rainbow), key, "Flush draw or not");
+        final CardSet swapped = CardSet.of(CardDTO.of(HEARTS, TWO), CardDTO.of(HEARTS, KING));
+        final CardSet board = CardSet.of(CardDTO.of(HEARTS, ACE), CardDTO.of(SPADES, SEVEN), CardDTO.of(CLUBS, NINE));
+        Assert.assertNotEquals(SuitIsomorphism.key(swapped, board), key, "Hole cards and the board are told apart");
+        Assert.assertNotEquals(SuitIsomorphism.key(CardSet.EMPTY, HOLE.union(FLOP)), key,
+                "Cards without hole cards differ from the same cards with them");
+    }
+
+    @Test
+    public void testIsomorphicEquity() throws Exception {
+        final CardSet hole = CardSet.of(CardDTO.of(SPADES, ACE), CardDTO.of(SPADES, KING));
+        final CardSet flop = CardSet.of(CardDTO.of(SPADES, TWO), CardDTO.of(DIAMONDS, SEVEN), CardDTO.of(HEARTS, NINE));
+        Assert.assertEquals(SuitIsomorphism.key(hole, flop), SuitIsomorphism.key(HOLE, FLOP));
+        final EquityEnumerator enumerator = new EquityEnumerator(ForkJoinPool.commonPool());
+        Assert.assertEquals(enumerator.enumerate(hole, flop, CardSet.EMPTY).getEquity(),
+                enumerator.enumerate(HOLE, FLOP, CardSet.EMPTY).getEquity(), 1e-12, "Same key, same equity");
+    }
+
+    private static CardSet permute(final CardSet cards, final List<CardDTO.Suit> suits) {
+        CardSet rv = CardSet.EMPTY;
+        for (final CardDTO card : cards) {
+            rv = rv.with(CardDTO.of(suits.get(card.getSuit().ordinal()), card.getValue()));
+        }
+        return rv;
+    }
+}